@@ -0,0 +1,355 @@
+package software.xdev.vaadin.chips.loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.github.mvysny.kaributesting.v10.MockVaadin;
+import com.github.mvysny.kaributesting.v10.Routes;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.server.communication.UidlWriter;
+
+import software.xdev.vaadin.chips.ChipComboBox;
+import software.xdev.vaadin.chips.SharedChipItemSource;
+
+
+/**
+ * Browserless load test for the {@link ChipComboBox}.
+ * <p/>
+ * Every simulated session runs on its own thread with a mocked Vaadin environment (Karibu-Testing) and concurrently
+ * exercises selection, filtering and <code>setItems</code>. Afterwards the throughput, latency percentiles and heap
+ * per session are reported. The heap per session only contains the {@link ChipComboBox} (with its selection), because
+ * the baseline is measured after the mocked Vaadin environments were set up.<br/>
+ * Additionally the UIDL payload per selection is reported for the delta synchronization and the previous full
+ * synchronization (all chips re-added and the available items replaced).
+ * <p/>
+ * Run with <code>mvn -f vaadin-chip-combobox-demo -Ploadtest test-compile exec:java</code><br/>
+ * Arguments (optional): <code>sessions iterations items</code>, e.g.
+ * <code>-Dexec.args="200 100 20000"</code>
+ */
+@SuppressWarnings({"java:S106", "checkstyle:MagicNumber"}) // Reporting is done on the console
+public final class ChipComboBoxLoadHarness
+{
+	private static final String SHARED_SOURCE_NAME = "loadtest-catalog";
+	private static final int PAGE_SIZE = 50;
+	private static final int PAYLOAD_SELECTIONS = 20;
+	private static final int SELECTIONS_PER_SESSION = 20;
+	
+	private final int sessions;
+	private final int iterations;
+	private final int items;
+	
+	private ChipComboBoxLoadHarness(final int sessions, final int iterations, final int items)
+	{
+		this.sessions = sessions;
+		this.iterations = iterations;
+		this.items = items;
+	}
+	
+	public static void main(final String[] args) throws Exception
+	{
+		final int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		final int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+		final int items = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+		
+		new ChipComboBoxLoadHarness(sessions, iterations, items).run();
+	}
+	
+	private void run() throws Exception
+	{
+		System.out.printf("Running %d sessions x %d iterations with %d items%n", this.sessions, this.iterations,
+			this.items);
+		
+		SharedChipItemSource.register(SHARED_SOURCE_NAME, IntStream.range(0, this.items).boxed().toList());
+		
+		final SessionSignals signals = new SessionSignals(
+			new CountDownLatch(this.sessions),
+			new CountDownLatch(1),
+			new CountDownLatch(this.sessions),
+			new CountDownLatch(1));
+		
+		final ExecutorService executor = Executors.newFixedThreadPool(this.sessions);
+		try
+		{
+			final List<Future<SessionResult>> futures = new ArrayList<>();
+			for(int i = 0; i < this.sessions; i++)
+			{
+				final long seed = i;
+				futures.add(executor.submit(() -> this.runSession(seed, signals)));
+			}
+			
+			// All mocked environments exist -> baseline
+			awaitSessions(signals.mocksReady(), futures);
+			final long heapBefore = usedHeap();
+			signals.baselineMeasured().countDown();
+			
+			// All sessions have a ChipComboBox with selected items
+			awaitSessions(signals.sessionsReady(), futures);
+			final long heapPerSession = (usedHeap() - heapBefore) / this.sessions;
+			
+			final long start = System.nanoTime();
+			signals.start().countDown();
+			
+			final Map<Operation, List<long[]>> latencies = new EnumMap<>(Operation.class);
+			for(final Future<SessionResult> future : futures)
+			{
+				future.get().latencies().forEach((op, values) ->
+					latencies.computeIfAbsent(op, k -> new ArrayList<>()).add(values));
+			}
+			final long durationNs = System.nanoTime() - start;
+			
+			this.report(latencies, durationNs, heapPerSession);
+			this.reportPayload();
+		}
+		finally
+		{
+			executor.shutdownNow();
+			SharedChipItemSource.unregister(SHARED_SOURCE_NAME);
+		}
+	}
+	
+	/**
+	 * Waits until the latch is released; fails if a session terminated before (e.g. with an exception).
+	 */
+	private static void awaitSessions(
+		final CountDownLatch latch,
+		final List<Future<SessionResult>> futures) throws Exception
+	{
+		while(!latch.await(1, TimeUnit.SECONDS))
+		{
+			for(final Future<SessionResult> future : futures)
+			{
+				if(future.isDone())
+				{
+					// Rethrows the exception of the session
+					future.get();
+					throw new IllegalStateException("A session terminated unexpectedly");
+				}
+			}
+		}
+	}
+	
+	private SessionResult runSession(final long seed, final SessionSignals signals) throws InterruptedException
+	{
+		final Random random = new Random(seed);
+		final Map<Operation, long[]> latencies = new EnumMap<>(Operation.class);
+		Arrays.stream(Operation.values()).forEach(op -> latencies.put(op, new long[this.iterations]));
+		
+		MockVaadin.setup(new Routes());
+		try
+		{
+			signals.mocksReady().countDown();
+			signals.baselineMeasured().await();
+			
+			final ChipComboBox<Integer> box = new ChipComboBox<Integer>()
+				.withLabel("Load test")
+				.withItemSource(SharedChipItemSource.get(SHARED_SOURCE_NAME));
+			UI.getCurrent().add(box);
+			box.setValue(random.ints(SELECTIONS_PER_SESSION, 0, this.items)
+				.boxed()
+				.collect(Collectors.toCollection(LinkedHashSet::new)));
+			
+			signals.sessionsReady().countDown();
+			signals.start().await();
+			
+			// setItems replaces the source (and prunes the selection) -> use a separate instance
+			final ChipComboBox<Integer> setItemsBox = new ChipComboBox<>();
+			UI.getCurrent().add(setItemsBox);
+			
+			@SuppressWarnings("unchecked")
+			final DataProvider<Integer, String> dataProvider =
+				(DataProvider<Integer, String>)box.getCbAvailableItems().getDataProvider();
+			
+			for(int i = 0; i < this.iterations; i++)
+			{
+				latencies.get(Operation.SELECT)[i] = measure(() ->
+					box.getCbAvailableItems().setValue(random.nextInt(this.items)));
+				
+				latencies.get(Operation.DESELECT)[i] = measure(() ->
+				{
+					final Set<Integer> value = new LinkedHashSet<>(box.getValue());
+					value.stream().skip(random.nextInt(Math.max(1, value.size()))).findFirst().ifPresent(value::remove);
+					box.setValue(value);
+				});
+				
+				final String filter = String.valueOf(random.nextInt(100));
+				latencies.get(Operation.FILTER)[i] = measure(() ->
+				{
+					dataProvider.size(new Query<>(filter));
+					dataProvider.fetch(new Query<>(0, PAGE_SIZE, null, null, filter)).count();
+				});
+				
+				final int start = random.nextInt(this.items);
+				latencies.get(Operation.SET_ITEMS)[i] = measure(() ->
+					setItemsBox.setItems(IntStream.range(start, start + PAGE_SIZE).boxed().toList()));
+			}
+		}
+		finally
+		{
+			MockVaadin.tearDown();
+		}
+		
+		return new SessionResult(latencies);
+	}
+	
+	private static long measure(final Runnable runnable)
+	{
+		final long start = System.nanoTime();
+		runnable.run();
+		return System.nanoTime() - start;
+	}
+	
+	private static long usedHeap()
+	{
+		final Runtime runtime = Runtime.getRuntime();
+		for(int i = 0; i < 3; i++)
+		{
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+	
+	private void report(
+		final Map<Operation, List<long[]>> latencies,
+		final long durationNs,
+		final long heapPerSession)
+	{
+		final long totalOps = (long)this.sessions * this.iterations * Operation.values().length;
+		final double durationS = durationNs / 1_000_000_000.0;
+		
+		System.out.printf(Locale.ENGLISH, "%nDuration: %.2fs%n", durationS);
+		System.out.printf(Locale.ENGLISH, "Throughput: %.0f ops/s%n", totalOps / durationS);
+		System.out.printf(Locale.ENGLISH, "Heap per session (%d selected items): %.1f KiB%n",
+			SELECTIONS_PER_SESSION, heapPerSession / 1024.0);
+		System.out.printf("%n%-10s %10s %10s %10s %10s%n", "Operation", "p50 [ms]", "p90 [ms]", "p99 [ms]", "max [ms]");
+		
+		latencies.forEach((op, values) ->
+		{
+			final long[] sorted = values.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+			System.out.printf(Locale.ENGLISH, "%-10s %10.3f %10.3f %10.3f %10.3f%n",
+				op,
+				percentile(sorted, 0.5),
+				percentile(sorted, 0.9),
+				percentile(sorted, 0.99),
+				sorted[sorted.length - 1] / 1_000_000.0);
+		});
+	}
+	
+	private void reportPayload()
+	{
+		MockVaadin.setup(new Routes());
+		try
+		{
+			System.out.printf("%n%-10s %20s%n", "Sync", "UIDL [bytes/select]");
+			System.out.printf(Locale.ENGLISH, "%-10s %20.0f%n", "delta",
+				this.payloadPerSelection(new ChipComboBox<>()));
+			System.out.printf(Locale.ENGLISH, "%-10s %20.0f%n", "full",
+				this.payloadPerSelection(new FullSyncChipComboBox<>()));
+		}
+		finally
+		{
+			MockVaadin.tearDown();
+		}
+	}
+	
+	private double payloadPerSelection(final ChipComboBox<Integer> box)
+	{
+		final UI ui = UI.getCurrent();
+		box.setItems(IntStream.range(0, this.items).boxed().toList());
+		ui.add(box);
+		// Simulate a client that displays the first page of the dropdown
+		box.getCbAvailableItems().getDataCommunicator().setRequestedRange(0, PAGE_SIZE);
+		// The initial rendering is not measured
+		uidlBytes(ui);
+		
+		long bytes = 0;
+		for(int i = 0; i < PAYLOAD_SELECTIONS; i++)
+		{
+			box.getCbAvailableItems().setValue(i);
+			bytes += uidlBytes(ui);
+		}
+		
+		ui.remove(box);
+		return bytes / (double)PAYLOAD_SELECTIONS;
+	}
+	
+	/**
+	 * Collects all pending changes of the UI (like a response to the client would) and returns their size.
+	 */
+	private static int uidlBytes(final UI ui)
+	{
+		return new UidlWriter().createUidl(ui, false)
+			.toJson()
+			.getBytes(StandardCharsets.UTF_8)
+			.length;
+	}
+	
+	private static double percentile(final long[] sorted, final double percentile)
+	{
+		final int index = (int)Math.ceil(percentile * sorted.length) - 1;
+		return sorted[Math.max(0, index)] / 1_000_000.0;
+	}
+	
+	/**
+	 * Emulates the previous synchronization: All chips are re-added and the available items are replaced on every
+	 * selection.
+	 */
+	static class FullSyncChipComboBox<T> extends ChipComboBox<T>
+	{
+		@Override
+		protected void updateChips(
+			final Set<T> newPresentationValue,
+			final Set<T> addedItems,
+			final Set<T> removedItems)
+		{
+			this.clearChips();
+			super.updateChips(newPresentationValue, newPresentationValue, Set.of());
+		}
+		
+		@Override
+		protected void updateAvailableItems()
+		{
+			this.getCbAvailableItems().setItems(this.streamAvailableItems(null).toList());
+		}
+	}
+	
+	enum Operation
+	{
+		SELECT,
+		DESELECT,
+		FILTER,
+		SET_ITEMS
+	}
+	
+	record SessionResult(Map<Operation, long[]> latencies)
+	{
+	}
+	
+	/**
+	 * Synchronizes the sessions with the main thread, so that the heap can be measured before/after the ChipComboBoxes
+	 * are created.
+	 */
+	record SessionSignals(
+		CountDownLatch mocksReady,
+		CountDownLatch baselineMeasured,
+		CountDownLatch sessionsReady,
+		CountDownLatch start)
+	{
+	}
+}
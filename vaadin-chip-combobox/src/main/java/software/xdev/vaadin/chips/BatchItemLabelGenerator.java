@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2021 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.chips;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.vaadin.flow.component.ItemLabelGenerator;
+import com.vaadin.flow.function.SerializableFunction;
+
+
+/**
+ * {@link ItemLabelGenerator} that resolves the labels of multiple items with batched lookups and caches them.
+ * <p/>
+ * This is intended for a {@link ChipComboBox} that only holds IDs (e.g. {@code ChipComboBox<Long>}) whose labels are
+ * stored in a database: Instead of loading an entity per chip, the {@link ChipComboBox} {@link #prefetch(Collection)
+ * prefetches} the labels of all new chips at once.
+ * <pre>
+ * chipComboBox.setBatchItemLabelResolver(ids -&gt; tagRepository.findNamesByIds(ids));
+ * </pre>
+ * A lookup contains at most {@link #getBatchSize()} items (e.g. to stay below the parameter limit of an SQL
+ * <code>IN</code> clause) and only the most recently used labels are cached. The cache is thread-safe, so an instance
+ * can be shared between multiple {@link ChipComboBox ChipComboBoxes} with
+ * {@link ChipComboBox#setItemLabelGenerator(ItemLabelGenerator)}.
+ */
+public class BatchItemLabelGenerator<T> implements ItemLabelGenerator<T>
+{
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+	public static final int DEFAULT_MAX_CACHE_SIZE = 10_000;
+	
+	protected final SerializableFunction<Collection<T>, Map<T, String>> batchResolver;
+	protected final int batchSize;
+	protected final int maxCacheSize;
+	/*
+	 * Not serialized; created again when deserialized
+	 */
+	protected transient Map<T, String> cache;
+	
+	/**
+	 * @param batchResolver resolves the labels of the given items; items that are missing in the result are
+	 *                      labeled with {@link String#valueOf(Object)}
+	 */
+	public BatchItemLabelGenerator(final SerializableFunction<Collection<T>, Map<T, String>> batchResolver)
+	{
+		this(batchResolver, DEFAULT_BATCH_SIZE, DEFAULT_MAX_CACHE_SIZE);
+	}
+	
+	/**
+	 * @param batchResolver resolves the labels of the given items; items that are missing in the result are
+	 *                      labeled with {@link String#valueOf(Object)}
+	 * @param batchSize     the maximum number of items that are passed to the batchResolver at once
+	 * @param maxCacheSize  the maximum number of cached labels; the least recently used labels are evicted
+	 */
+	public BatchItemLabelGenerator(
+		final SerializableFunction<Collection<T>, Map<T, String>> batchResolver,
+		final int batchSize,
+		final int maxCacheSize)
+	{
+		if(batchSize < 1 || maxCacheSize < 1)
+		{
+			throw new IllegalArgumentException("batchSize and maxCacheSize must be positive");
+		}
+		
+		this.batchResolver = Objects.requireNonNull(batchResolver);
+		this.batchSize = batchSize;
+		this.maxCacheSize = maxCacheSize;
+		this.cache = this.createCache();
+	}
+	
+	protected Map<T, String> createCache()
+	{
+		return Collections.synchronizedMap(new LabelCache<>(this.maxCacheSize));
+	}
+	
+	/**
+	 * Resolves the labels of all items that are not already cached (in batches).
+	 */
+	public void prefetch(final Collection<T> items)
+	{
+		this.resolve(items);
+	}
+	
+	/**
+	 * Returns the labels of the items. Items that are not cached are resolved in batches of at most
+	 * {@link #getBatchSize()} items.
+	 * <p/>
+	 * The result contains all labels even if they no longer fit into the cache.
+	 */
+	public Map<T, String> resolve(final Collection<T> items)
+	{
+		final Map<T, String> labels = new HashMap<>();
+		final Set<T> missingItems = new LinkedHashSet<>();
+		for(final T item : items)
+		{
+			final String label = this.cache.get(item);
+			if(label != null)
+			{
+				labels.put(item, label);
+			}
+			else
+			{
+				missingItems.add(item);
+			}
+		}
+		
+		final List<T> missingItemList = List.copyOf(missingItems);
+		for(int i = 0; i < missingItemList.size(); i += this.batchSize)
+		{
+			final List<T> batch = missingItemList.subList(i, Math.min(i + this.batchSize, missingItemList.size()));
+			final Map<T, String> resolvedLabels = this.batchResolver.apply(batch);
+			batch.forEach(item ->
+			{
+				final String label = resolvedLabels.getOrDefault(item, String.valueOf(item));
+				this.cache.put(item, label);
+				labels.put(item, label);
+			});
+		}
+		return labels;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implNote Items that were not {@link #prefetch(Collection) prefetched} are resolved individually
+	 */
+	@Override
+	public String apply(final T item)
+	{
+		final String label = this.cache.get(item);
+		return label != null
+			? label
+			: this.resolve(List.of(item)).get(item);
+	}
+	
+	/**
+	 * Removes the cached label of the item, so that it's resolved again.
+	 */
+	public void invalidate(final T item)
+	{
+		this.cache.remove(item);
+	}
+	
+	/**
+	 * Removes all cached labels.
+	 */
+	public void invalidateAll()
+	{
+		this.cache.clear();
+	}
+	
+	public int getBatchSize()
+	{
+		return this.batchSize;
+	}
+	
+	public int getMaxCacheSize()
+	{
+		return this.maxCacheSize;
+	}
+	
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		this.cache = this.createCache();
+	}
+	
+	/**
+	 * Evicts the least recently used labels when the maximum size is exceeded.
+	 */
+	protected static class LabelCache<K, V> extends LinkedHashMap<K, V>
+	{
+		private static final int INITIAL_CAPACITY = 16;
+		private static final float LOAD_FACTOR = 0.75f;
+		
+		protected final int maxSize;
+		
+		public LabelCache(final int maxSize)
+		{
+			// Access order -> least recently used first
+			super(INITIAL_CAPACITY, LOAD_FACTOR, true);
+			this.maxSize = maxSize;
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<K, V> eldest)
+		{
+			return this.size() > this.maxSize;
+		}
+	}
+}
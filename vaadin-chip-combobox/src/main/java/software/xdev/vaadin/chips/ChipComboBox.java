@@ -15,29 +15,49 @@
  */
 package software.xdev.vaadin.chips;
 
+import java.io.Serializable;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.vaadin.flow.component.AbstractCompositeField;
 import com.vaadin.flow.component.AbstractField.ComponentValueChangeEvent;
+import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.ClickEvent;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.Focusable;
 import com.vaadin.flow.component.HasLabel;
 import com.vaadin.flow.component.HasSize;
 import com.vaadin.flow.component.HasStyle;
-import com.vaadin.flow.component.HasTheme;
 import com.vaadin.flow.component.HasValidation;
 import com.vaadin.flow.component.ItemLabelGenerator;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.dependency.CssImport;
+import com.vaadin.flow.component.details.Details;
+import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.internal.AbstractFieldSupport;
 import com.vaadin.flow.component.orderedlayout.FlexComponent;
@@ -45,24 +65,36 @@ import com.vaadin.flow.component.orderedlayout.FlexLayout;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.select.Select;
+import com.vaadin.flow.component.shared.HasThemeVariant;
 import com.vaadin.flow.component.shared.HasTooltip;
+import com.vaadin.flow.component.treegrid.TreeGrid;
 import com.vaadin.flow.data.binder.HasItems;
 import com.vaadin.flow.data.binder.HasValidator;
-import com.vaadin.flow.dom.Style;
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.KeyMapper;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.hierarchy.HierarchicalDataProvider;
+import com.vaadin.flow.function.SerializableComparator;
 import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializablePredicate;
 
 
 /**
  * This component has a ComboBox with available items and displays the selected items as "chips" underneath it.<br/> It
  * behaves somewhat similar to a {@link Select}.
+ * <p/>
+ * The chips are styled by the shared <code>xdev-chip-combobox.css</code> and can be adjusted with
+ * {@link ChipComboBoxVariant theme variants}.
  */
+@CssImport("./xdev-chip-combobox.css")
 public class ChipComboBox<T> extends AbstractCompositeField<VerticalLayout, ChipComboBox<T>, Set<T>>
 	implements
 	HasStyle,
 	Focusable<ChipComboBox<T>>,
 	HasSize,
 	HasValidation,
-	HasTheme,
+	HasThemeVariant<ChipComboBoxVariant>,
 	HasLabel,
 	HasTooltip,
 	HasItems<T>,
@@ -76,18 +108,90 @@ public class ChipComboBox<T> extends AbstractCompositeField<VerticalLayout, Chip
 	protected Button btnClearAll = new Button(VaadinIcon.TRASH.create());
 	protected HorizontalLayout comboBoxContainer = new HorizontalLayout();
 	protected FlexLayout chipsContainer = new FlexLayout();
+	/*
+	 * Only created when client side chip rendering is active
+	 */
+	protected ClientChipList clientChipList;
+	/*
+	 * Only created when hierarchical items are set
+	 */
+	protected TreeGrid<T> treeAvailableItems;
+	protected Details treeAvailableItemsDetails;
 	
 	/*
 	 * Suppliers / Configuration
 	 */
 	protected SerializableFunction<T, ChipComponent<T>> chipsSupplier = ChipComponent::new;
 	protected ItemLabelGenerator<T> chipItemLabelGenerator = Object::toString;
+	protected SerializableFunction<T, String> chipGroupClassifier;
+	protected ItemKeyExtractor<T> itemKeyExtractor;
+	protected SerializableComparator<T> itemComparator;
+	protected ItemUsageRanking<Object> itemUsageRanking;
+	/*
+	 * null: The items themselves are recorded
+	 */
+	protected SerializableFunction<T, Object> itemUsageRankingKeyFunction;
+	protected boolean chipGroupsInitiallyOpened = true;
+	protected boolean clientSideChipRendering;
+	protected boolean lazyAvailableItems;
+	protected boolean releaseChipsOnDetach;
+	protected Duration queuedItemUpdatesInterval = Duration.ZERO;
+	protected boolean precomputeItemLabels;
+	protected String treeAvailableItemsSummary = "";
 	
 	/*
 	 * Fields
 	 */
-	protected final List<T> allAvailableItems = new ArrayList<>();
+	protected ChipItemSource<T> itemSource = ChipItemSource.empty();
+	/*
+	 * If the itemSource was created by this instance (and can therefore be modified)
+	 */
+	protected boolean itemSourceOwned = true;
+	/*
+	 * Copy of the value that is currently presented; used to only apply the changes
+	 */
+	protected Set<T> presentedValue = Set.of();
+	/*
+	 * Only used when an itemKeyExtractor is set; built lazily (also after deserialization)
+	 */
+	protected transient BitSet sourceItemKeys;
+	protected transient BitSet selectedItemKeys;
+	/*
+	 * Not serialized (might be shared by a SharedChipItemSource); obtained again when required
+	 */
+	protected transient PrecomputedItemLabels<T> precomputedItemLabels;
+	/*
+	 * All items of the source sorted by the itemComparator (including the selected ones); built lazily (also after
+	 * deserialization, as it might be shared by a SharedChipItemSource)
+	 */
+	protected transient List<T> sortedItems;
+	/*
+	 * Snapshot of the top keys of the itemUsageRanking; taken when the first page is fetched, so that the order is
+	 * stable while paging
+	 */
+	protected List<Object> rankedTopKeys = List.of();
+	/*
+	 * The items of the source by their ranking key (only used with an itemUsageRankingKeyFunction); built lazily
+	 */
+	protected transient Map<Object, T> itemsByRankingKey;
 	protected final List<ChipComponent<T>> selectedComponents = new ArrayList<>();
+	protected final Map<String, ChipGroup<T>> chipGroups = new LinkedHashMap<>();
+	/*
+	 * Opened state of the groups (by name) while the chips are rebuilt
+	 */
+	protected final Map<String, Boolean> chipGroupOpenedStates = new HashMap<>();
+	protected final Set<T> clientChipItems = new LinkedHashSet<>();
+	protected final KeyMapper<T> clientChipKeys = new KeyMapper<>();
+	protected final CallbackDataProvider<T, String> availableItemsDataProvider =
+		DataProvider.fromFilteringCallbacks(this::fetchAvailableItems, this::countAvailableItems);
+	protected boolean availableItemsDataProviderBound;
+	protected boolean chipsReleased;
+	/*
+	 * Queued item updates (can be accessed from any thread)
+	 */
+	protected final Queue<QueuedItemUpdate<T>> queuedItemUpdates = new ConcurrentLinkedQueue<>();
+	protected final AtomicBoolean queuedItemUpdatesScheduled = new AtomicBoolean();
+	protected transient volatile UI attachedUI;
 	
 	public ChipComboBox()
 	{
@@ -116,9 +220,8 @@ public class ChipComboBox<T> extends AbstractCompositeField<VerticalLayout, Chip
 	
 	protected void initUI()
 	{
-		final Style chipsContainerStyle = this.chipsContainer.getStyle();
-		chipsContainerStyle.set("flex-flow", "wrap");
-		chipsContainerStyle.set("flex-direction", "row");
+		this.addClassName("xdev-chip-combobox");
+		this.chipsContainer.addClassName("xdev-chip-combobox-chips");
 		
 		this.btnClearAll.addThemeVariants(ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_TERTIARY_INLINE);
 		
@@ -140,6 +243,11 @@ public class ChipComboBox<T> extends AbstractCompositeField<VerticalLayout, Chip
 	protected void initListeners()
 	{
 		this.cbAvailableItems.addValueChangeListener(this::onCbAvailableItemsValueChanged);
+		// Typing a filter also opens the ComboBox
+		this.cbAvailableItems.getElement().addPropertyChangeListener(
+			"opened",
+			"opened-changed",
+			ev -> this.onCbAvailableItemsOpenedChanged());
 		this.btnClearAll.addClickListener(this::onClickClearAll);
 	}
 	
@@ -150,9 +258,23 @@ public class ChipComboBox<T> extends AbstractCompositeField<VerticalLayout, Chip
 			return;
 		}
 		
+		if(this.itemUsageRanking != null)
+		{
+			this.itemUsageRanking.record(this.itemUsageRankingKeyFunction != null
+				? this.itemUsageRankingKeyFunction.apply(event.getValue())
+				: event.getValue());
+		}
 		this.addItem(event.getValue(), event.isFromClient());
 	}
 	
+	protected void onCbAvailableItemsOpenedChanged()
+	{
+		if(!this.availableItemsDataProviderBound && this.cbAvailableItems.isOpened())
+		{
+			this.bindAvailableItemsDataProvider();
+		}
+	}
+	
 	protected void onClickClearAll(final ClickEvent<Button> event)
 	{
 		if(this.isReadOnly())
@@ -163,42 +285,307 @@ public class ChipComboBox<T> extends AbstractCompositeField<VerticalLayout, Chip
 		this.updateValues(this.getEmptyValue(), event.isFromClient());
 	}
 	
+	protected void onClientChipRemove(final ClientChipList.ChipRemoveEvent event)
+	{
+		if(this.isReadOnly())
+		{
+			return;
+		}
+		
+		final T item = this.clientChipKeys.get(event.getKey());
+		if(item != null)
+		{
+			this.removeItem(item, event.isFromClient());
+		}
+	}
+	
+	@Override
+	protected void onAttach(final AttachEvent attachEvent)
+	{
+		super.onAttach(attachEvent);
+		
+		if(this.chipsReleased)
+		{
+			this.chipsReleased = false;
+			this.rebuildChips();
+		}
+		
+		this.attachedUI = attachEvent.getUI();
+		// Updates that were queued while detached
+		this.applyQueuedItemUpdates();
+	}
+	
+	@Override
+	protected void onDetach(final DetachEvent detachEvent)
+	{
+		super.onDetach(detachEvent);
+		
+		this.attachedUI = null;
+		
+		if(this.releaseChipsOnDetach)
+		{
+			this.clearChips();
+			this.chipsReleased = true;
+		}
+	}
+	
 	@Override
 	protected void setPresentationValue(final Set<T> newPresentationValue)
 	{
-		/*
-		 * Update the component list
-		 */
+		final Set<T> oldPresentationValue = this.presentedValue;
+		// Copy: The caller might modify the set afterwards
+		this.presentedValue = new LinkedHashSet<>(newPresentationValue);
+		// Clearing/Setting the whole value doesn't require comparing the values
+		final Set<T> addedItems = oldPresentationValue.isEmpty()
+			? this.presentedValue
+			: difference(newPresentationValue, oldPresentationValue);
+		final Set<T> removedItems = newPresentationValue.isEmpty()
+			? oldPresentationValue
+			: difference(oldPresentationValue, newPresentationValue);
+		
+		this.updateSelectedItemKeys(addedItems, removedItems);
+		this.refreshTreeAvailableItems(addedItems, removedItems);
+		
+		// Released chips are rebuilt from the value when attached again
+		if(!this.chipsReleased)
+		{
+			this.updateChips(newPresentationValue, addedItems, removedItems);
+		}
+		
+		this.updateUI();
+	}
+	
+	/**
+	 * Returns the items of the set that are not contained in the other set (in the order of the set).
+	 */
+	protected static <T> Set<T> difference(final Set<T> set, final Set<T> other)
+	{
+		return set.stream()
+			.filter(item -> !other.contains(item))
+			.collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+	
+	/**
+	 * Updates the chips
+	 *
+	 * @param newPresentationValue all selected items
+	 * @param addedItems           the items that were added since the last update
+	 * @param removedItems         the items that were removed since the last update
+	 */
+	protected void updateChips(
+		final Set<T> newPresentationValue,
+		final Set<T> addedItems,
+		final Set<T> removedItems)
+	{
+		// Resolve the labels of all new chips at once
+		prefetchLabels(this.chipItemLabelGenerator, addedItems);
 		
+		if(this.clientSideChipRendering)
+		{
+			this.updateClientChips(addedItems, removedItems);
+		}
+		else if(this.chipGroupClassifier != null)
+		{
+			this.updateChipGroups(addedItems, removedItems);
+		}
+		else
+		{
+			this.updateSelectedComponents(newPresentationValue);
+		}
+	}
+	
+	/**
+	 * Updates the component list
+	 */
+	protected void updateSelectedComponents(final Set<T> newPresentationValue)
+	{
 		// Remove components
-		this.selectedComponents.removeIf(comp -> !newPresentationValue.contains(comp.getItem()));
+		this.selectedComponents.removeIf(comp ->
+		{
+			if(newPresentationValue.contains(comp.getItem()))
+			{
+				return false;
+			}
+			
+			this.chipsContainer.remove(comp);
+			return true;
+		});
 		
 		// Find new values and build components
-		final Collection<T> existingValues =
+		final Set<T> existingValues =
 			this.selectedComponents.stream()
 				.map(ChipComponent::getItem)
-				.toList();
+				.collect(Collectors.toSet());
 		
 		newPresentationValue.stream()
 			.filter(v -> !existingValues.contains(v))
-			.map(item ->
+			.map(this::createChipComponent)
+			.forEach(comp ->
+			{
+				this.selectedComponents.add(comp);
+				this.chipsContainer.add(comp);
+			});
+	}
+	
+	/**
+	 * Updates the groups incrementally: Only the added/removed items are classified and only their groups are
+	 * touched.
+	 */
+	protected void updateChipGroups(final Set<T> addedItems, final Set<T> removedItems)
+	{
+		// Remove items and groups that became empty
+		for(final T item : removedItems)
+		{
+			final ChipGroup<T> group = this.chipGroups.get(this.chipGroupClassifier.apply(item));
+			if(group != null && group.removeItem(item) && group.isEmpty())
 			{
-				final ChipComponent<T> chipComponent = this.chipsSupplier.apply(item);
-				chipComponent.setItemLabelGenerator(this.chipItemLabelGenerator);
-				chipComponent.addBtnDeleteClickListener(ev ->
-				{
-					if(this.isReadOnly())
-					{
-						return;
-					}
-					
-					this.removeItem(item, ev.isFromClient());
-				});
-				return chipComponent;
-			})
-			.forEach(this.selectedComponents::add);
+				this.chipsContainer.remove(group);
+				this.chipGroups.remove(group.getName());
+			}
+		}
 		
-		this.updateUI();
+		// Add new items
+		for(final T item : addedItems)
+		{
+			final String groupName = this.chipGroupClassifier.apply(item);
+			ChipGroup<T> group = this.chipGroups.get(groupName);
+			if(group == null)
+			{
+				group = this.createChipGroup(groupName);
+				this.chipGroups.put(groupName, group);
+				this.chipsContainer.add(group);
+			}
+			group.addItem(item);
+		}
+	}
+	
+	/**
+	 * Updates the chips that are rendered on the client ({@link ClientChipList}) incrementally: Only the added/removed
+	 * items are sent.
+	 */
+	protected void updateClientChips(final Set<T> addedItems, final Set<T> removedItems)
+	{
+		// Release the keys of removed items
+		final List<String> removedKeys = new ArrayList<>();
+		for(final T item : removedItems)
+		{
+			if(this.clientChipItems.remove(item))
+			{
+				removedKeys.add(this.clientChipKeys.key(item));
+				this.clientChipKeys.remove(item);
+			}
+		}
+		
+		final Map<String, String> addedChips = new LinkedHashMap<>();
+		for(final T item : addedItems)
+		{
+			if(this.clientChipItems.add(item))
+			{
+				addedChips.put(this.clientChipKeys.key(item), this.getEffectiveChipItemLabelGenerator().apply(item));
+			}
+		}
+		
+		// Only send the changes
+		if(!removedKeys.isEmpty())
+		{
+			this.clientChipList.removeChips(removedKeys);
+		}
+		if(!addedChips.isEmpty())
+		{
+			this.clientChipList.addChips(addedChips);
+		}
+	}
+	
+	protected void sendClientChips()
+	{
+		final Map<String, String> chips = new LinkedHashMap<>();
+		this.clientChipItems.forEach(item ->
+			chips.put(this.clientChipKeys.key(item), this.getEffectiveChipItemLabelGenerator().apply(item)));
+		this.clientChipList.setChips(chips);
+	}
+	
+	protected ChipComponent<T> createChipComponent(final T item)
+	{
+		final ChipComponent<T> chipComponent = this.chipsSupplier.apply(item);
+		chipComponent.setItemLabelGenerator(this::getChipItemLabel);
+		chipComponent.setReadonly(this.isReadOnly());
+		chipComponent.addBtnDeleteClickListener(ev ->
+		{
+			if(this.isReadOnly())
+			{
+				return;
+			}
+			
+			this.removeItem(item, ev.isFromClient());
+		});
+		return chipComponent;
+	}
+	
+	protected ChipGroup<T> createChipGroup(final String groupName)
+	{
+		final ChipGroup<T> group = new ChipGroup<>(groupName, this::createChipComponent);
+		group.setWidthFull();
+		// Keep the state of groups that are rebuilt
+		group.setOpened(this.chipGroupOpenedStates.getOrDefault(groupName, this.chipGroupsInitiallyOpened));
+		return group;
+	}
+	
+	/**
+	 * Returns all {@link ChipComponent ChipComponents} that currently exist, including the ones of opened groups.
+	 */
+	protected Stream<ChipComponent<T>> streamChipComponents()
+	{
+		return Stream.concat(
+			this.selectedComponents.stream(),
+			this.chipGroups.values().stream().flatMap(group -> group.getChipComponents().stream()));
+	}
+	
+	/**
+	 * Discards all existing chips/groups and builds them again from the current value. Released chips are only
+	 * rebuilt when attached again.
+	 */
+	protected void rebuildChips()
+	{
+		if(this.chipsReleased)
+		{
+			return;
+		}
+		
+		this.clearChips();
+		
+		final Set<T> value = this.getValue();
+		this.updateChips(value, value, Set.of());
+		this.chipGroupOpenedStates.clear();
+	}
+	
+	/**
+	 * Re-adds all chips.
+	 *
+	 * @deprecated The chips are updated incrementally and this method is no longer called; use
+	 * {@link #rebuildChips()} to rebuild all chips
+	 */
+	@Deprecated(forRemoval = true)
+	protected void updateSelectedChips()
+	{
+		this.rebuildChips();
+	}
+	
+	/**
+	 * Removes all chips/groups; only the value is kept.
+	 */
+	protected void clearChips()
+	{
+		this.chipGroups.forEach((name, group) -> this.chipGroupOpenedStates.put(name, group.isOpened()));
+		
+		this.chipsContainer.removeAll();
+		this.selectedComponents.clear();
+		this.chipGroups.clear();
+		this.clientChipItems.clear();
+		this.clientChipKeys.removeAll();
+		if(this.clientChipList != null)
+		{
+			this.clientChipList.setChips(Collections.emptyMap());
+		}
 	}
 	
 	protected void addItem(final T item, final boolean isFromClient)
@@ -245,80 +632,792 @@ public class ChipComboBox<T> extends AbstractCompositeField<VerticalLayout, Chip
 	 */
 	protected void updateUI()
 	{
-		this.updateSelectedChips();
 		this.updateAvailableItems();
 		this.updateRequiredIndicatorOfCbAvailableItems();
 	}
 	
-	protected void updateSelectedChips()
+	protected void updateAvailableItems()
 	{
-		this.chipsContainer.removeAll();
-		this.chipsContainer.add(this.selectedComponents.toArray(new ChipComponent[]{}));
+		if(this.cbAvailableItems.getValue() != null)
+		{
+			this.cbAvailableItems.clear();
+		}
+		
+		if(this.availableItemsDataProviderBound)
+		{
+			this.availableItemsDataProvider.refreshAll();
+		}
+		else if(!this.lazyAvailableItems)
+		{
+			this.bindAvailableItemsDataProvider();
+		}
+		// Otherwise: Bound when the ComboBox is opened for the first time
 	}
 	
-	protected void updateAvailableItems()
+	/**
+	 * Binds the {@link #availableItemsDataProvider} to the {@link ComboBox}.
+	 * <p/>
+	 * The items are only sent when requested by the client and are not replaced on every selection.
+	 */
+	protected void bindAvailableItemsDataProvider()
+	{
+		this.availableItemsDataProviderBound = true;
+		this.cbAvailableItems.setItems(this.availableItemsDataProvider);
+	}
+	
+	/**
+	 * Returns the keys of the item source. They are only computed when required and are shared if the source is a
+	 * {@link SharedChipItemSource} (and must therefore not be modified).
+	 */
+	protected BitSet getSourceItemKeys()
+	{
+		if(this.sourceItemKeys == null)
+		{
+			this.sourceItemKeys = this.itemSource.computeItemKeys(this.itemKeyExtractor);
+		}
+		return this.sourceItemKeys;
+	}
+	
+	/**
+	 * Returns the keys of the selected items. They are only computed when required.
+	 */
+	protected BitSet getSelectedItemKeys()
+	{
+		if(this.selectedItemKeys == null)
+		{
+			final BitSet keys = new BitSet();
+			this.presentedValue.forEach(item -> keys.set(this.getItemKey(item)));
+			this.selectedItemKeys = keys;
+		}
+		return this.selectedItemKeys;
+	}
+	
+	/**
+	 * Only updates the bits of the added/removed items.
+	 */
+	protected void updateSelectedItemKeys(final Collection<T> addedItems, final Collection<T> removedItems)
+	{
+		// Not built yet: Is built from the (already updated) presented value when required
+		if(this.itemKeyExtractor == null || this.selectedItemKeys == null)
+		{
+			return;
+		}
+		
+		if(this.presentedValue.isEmpty())
+		{
+			this.selectedItemKeys.clear();
+			return;
+		}
+		removedItems.forEach(item -> this.selectedItemKeys.clear(this.getItemKey(item)));
+		addedItems.forEach(item -> this.selectedItemKeys.set(this.getItemKey(item)));
+	}
+	
+	/**
+	 * Returns the key of the item (see {@link #setItemKeyExtractor(ItemKeyExtractor)}).
+	 *
+	 * @throws IllegalArgumentException if the key is negative
+	 */
+	protected int getItemKey(final T item)
+	{
+		return this.itemKeyExtractor.getCheckedKey(item);
+	}
+	
+	/**
+	 * Returns the {@link #sortedItems}; they are only sorted when they are required for the first time.
+	 */
+	protected List<T> getSortedItems()
+	{
+		if(this.sortedItems == null)
+		{
+			this.sortedItems = this.itemSource.sortItems(this.itemComparator);
+		}
+		return this.sortedItems;
+	}
+	
+	/**
+	 * Inserts the item into the {@link #sortedItems} after all items that the comparator considers equal.
+	 */
+	protected void insertSorted(final T item)
+	{
+		this.sortedItems.add(this.findSortedIndex(item, true), item);
+	}
+	
+	/**
+	 * Removes the item from the {@link #sortedItems}. Only the items that the comparator considers equal are checked
+	 * with {@link Object#equals(Object)}.
+	 */
+	protected void removeSorted(final T item)
+	{
+		for(int i = this.findSortedIndex(item, false);
+			i < this.sortedItems.size() && this.itemComparator.compare(this.sortedItems.get(i), item) == 0;
+			i++)
+		{
+			if(Objects.equals(this.sortedItems.get(i), item))
+			{
+				this.sortedItems.remove(i);
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Binary search in the {@link #sortedItems}.
+	 *
+	 * @param afterEqualItems <code>true</code> returns the index after the items that the comparator considers equal,
+	 *                        otherwise the index of the first one
+	 */
+	protected int findSortedIndex(final T item, final boolean afterEqualItems)
+	{
+		int low = 0;
+		int high = this.sortedItems.size();
+		while(low < high)
+		{
+			final int mid = (low + high) >>> 1;
+			final int cmp = this.itemComparator.compare(this.sortedItems.get(mid), item);
+			if(cmp < 0 || (afterEqualItems && cmp == 0))
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * Checks if the item is available (not selected).
+	 */
+	protected boolean isAvailable(final T item, final Set<T> selectedItems)
+	{
+		if(this.itemKeyExtractor != null)
+		{
+			final int key = this.getItemKey(item);
+			return this.getSourceItemKeys().get(key) && !this.getSelectedItemKeys().get(key);
+		}
+		return !selectedItems.contains(item);
+	}
+	
+	protected Stream<T> fetchAvailableItems(final Query<T, String> query)
+	{
+		if(this.itemUsageRanking != null && query.getOffset() == 0)
+		{
+			this.rankedTopKeys = this.itemUsageRanking.getTopItems();
+		}
+		
+		final List<T> items = this.streamAvailableItems(query.getFilter().orElse(null))
+			.skip(query.getOffset())
+			.limit(query.getLimit())
+			.toList();
+		
+		// Resolve the labels of the fetched page at once
+		prefetchLabels(this.cbAvailableItems.getItemLabelGenerator(), items);
+		return items.stream();
+	}
+	
+	/**
+	 * Prefetches the labels if the generator is a {@link BatchItemLabelGenerator}.
+	 */
+	protected static <T> void prefetchLabels(final ItemLabelGenerator<T> labelGenerator, final Collection<T> items)
 	{
-		final List<T> availableItems = new ArrayList<>(this.allAvailableItems);
-		availableItems.removeAll(this.getValue());
-		this.cbAvailableItems.setItems(availableItems);
+		if(labelGenerator instanceof final BatchItemLabelGenerator<T> batchItemLabelGenerator)
+		{
+			batchItemLabelGenerator.prefetch(items);
+		}
+	}
+	
+	protected int countAvailableItems(final Query<T, String> query)
+	{
+		final String filter = query.getFilter().orElse(null);
+		if(filter == null || filter.isEmpty())
+		{
+			if(this.itemKeyExtractor != null)
+			{
+				// All source items except the selected ones
+				final BitSet sourceKeys = this.getSourceItemKeys();
+				return sourceKeys.cardinality() - (int)this.getSelectedItemKeys().stream()
+					.filter(sourceKeys::get)
+					.count();
+			}
+			
+			// The order (ranking) doesn't matter for counting
+			final Set<T> selectedItems = this.getValue();
+			return (int)this.itemSource.stream()
+				.filter(item -> this.isAvailable(item, selectedItems))
+				.count();
+		}
+		return (int)this.streamAvailableItems(filter).count();
+	}
+	
+	/**
+	 * Streams all items that are not selected and match the filter (of the {@link ComboBox}).
+	 */
+	protected Stream<T> streamAvailableItems(final String filter)
+	{
+		final Set<T> selectedItems = this.getValue();
+		final Stream<T> availableItems = (this.itemComparator != null
+			? this.getSortedItems().stream()
+			: this.itemSource.stream())
+			.filter(item -> this.isAvailable(item, selectedItems));
+		if(filter == null || filter.isEmpty())
+		{
+			return this.rankAvailableItems(availableItems, selectedItems);
+		}
+		
+		final PrecomputedItemLabels<T> labels = this.getPrecomputedItemLabels();
+		if(labels != null)
+		{
+			return availableItems.filter(labels.matcher(filter));
+		}
+		
+		// Same behavior as the default filter of the ComboBox
+		final Locale locale = this.getLocale();
+		final String lowerCaseFilter = filter.toLowerCase(locale);
+		final ItemLabelGenerator<T> labelGenerator = this.cbAvailableItems.getItemLabelGenerator();
+		return availableItems.filter(item -> labelGenerator.apply(item).toLowerCase(locale).contains(lowerCaseFilter));
+	}
+	
+	/**
+	 * Moves the available items of the {@link #rankedTopKeys} to the front; the other items keep their order.
+	 * <p/>
+	 * Only the top keys are looked up (in O(K)), see {@link #findRankedItem(Object)}.
+	 */
+	protected Stream<T> rankAvailableItems(final Stream<T> availableItems, final Set<T> selectedItems)
+	{
+		if(this.itemUsageRanking == null || this.rankedTopKeys.isEmpty())
+		{
+			return availableItems;
+		}
+		
+		final List<T> topItems = this.rankedTopKeys.stream()
+			.map(this::findRankedItem)
+			.filter(item -> item != null && this.isAvailable(item, selectedItems))
+			.toList();
+		if(topItems.isEmpty())
+		{
+			return availableItems;
+		}
+		
+		final Set<T> topItemSet = new HashSet<>(topItems);
+		return Stream.concat(topItems.stream(), availableItems.filter(item -> !topItemSet.contains(item)));
+	}
+	
+	/**
+	 * Returns the item of the source with the ranking key or <code>null</code> if the source doesn't contain it.
+	 * <p/>
+	 * Keys are mapped to the items of this instance's source (with an index that is only built once per source), as
+	 * the ranking is shared with other instances that might use other instances of the same items.
+	 */
+	@SuppressWarnings("unchecked")
+	protected T findRankedItem(final Object key)
+	{
+		if(this.itemUsageRankingKeyFunction == null)
+		{
+			return this.itemSource.contains((T)key) ? (T)key : null;
+		}
+		
+		if(this.itemsByRankingKey == null)
+		{
+			final Map<Object, T> index = new HashMap<>();
+			this.itemSource.stream()
+				.forEach(item -> index.putIfAbsent(this.itemUsageRankingKeyFunction.apply(item), item));
+			this.itemsByRankingKey = index;
+		}
+		return this.itemsByRankingKey.get(key);
+	}
+	
+	protected void updateRequiredIndicatorOfCbAvailableItems()
+	{
+		this.cbAvailableItems.setRequiredIndicatorVisible(this.isRequiredIndicatorVisible());
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @apiNote Currently selected/set values that no longer exist in the new items collection will be removed (unless
+	 * {@link #setHierarchicalItems(HierarchicalDataProvider) hierarchical items} are used, as values selected in the
+	 * tree don't need to be part of the items).
+	 */
+	@Override
+	public void setItems(final Collection<T> items)
+	{
+		Objects.requireNonNull(items);
+		this.setItemSource(ChipItemSource.of(items));
+		this.itemSourceOwned = true;
+	}
+	
+	/**
+	 * Sets the source of all available items. Only a reference to the source is kept, so it can be shared between
+	 * multiple instances (see {@link SharedChipItemSource}).
+	 *
+	 * @apiNote Currently selected/set values that don't exist in the new source will be removed (unless
+	 * {@link #setHierarchicalItems(HierarchicalDataProvider) hierarchical items} are used, as values selected in the
+	 * tree don't need to be part of the source).
+	 */
+	public void setItemSource(final ChipItemSource<T> itemSource)
+	{
+		this.itemSource = Objects.requireNonNull(itemSource);
+		this.itemSourceOwned = false;
+		this.sourceItemKeys = null;
+		this.itemsByRankingKey = null;
+		this.updatePrecomputedItemLabels();
+		this.sortedItems = null;
+		
+		// Remove selected values that are not in the item source
+		// Values selected in the tree are not part of the item source
+		if(this.treeAvailableItems == null)
+		{
+			final Set<T> values = new LinkedHashSet<>(this.getValue());
+			values.removeIf(v -> this.itemKeyExtractor != null
+				? !this.getSourceItemKeys().get(this.getItemKey(v))
+				: !this.itemSource.contains(v));
+			this.updateValues(values, false);
+		}
+		
+		// Force UI update here to ensure everything (selected + available) is shown correctly
+		this.updateUI();
+	}
+	
+	// region Chips Supplier
+	
+	/**
+	 * Returns the current supplier for creating new {@link ChipComponent ChipComponents}
+	 *
+	 * @return the current supplier for creating new {@link ChipComponent ChipComponents}
+	 */
+	public Function<T, ChipComponent<T>> getChipsSupplier()
+	{
+		return this.chipsSupplier;
+	}
+	
+	/**
+	 * @return self
+	 * @see #setChipsSupplier(SerializableFunction)
+	 */
+	public ChipComboBox<T> withChipsSupplier(final SerializableFunction<T, ChipComponent<T>> chipsSupplier)
+	{
+		this.setChipsSupplier(chipsSupplier);
+		return this;
+	}
+	
+	/**
+	 * Sets the supplier for creating new {@link ChipComponent ChipComponents}
+	 *
+	 * @param chipsSupplier supplier for creating new {@link ChipComponent ChipComponents}
+	 */
+	public void setChipsSupplier(final SerializableFunction<T, ChipComponent<T>> chipsSupplier)
+	{
+		this.chipsSupplier = Objects.requireNonNull(chipsSupplier);
+	}
+	
+	// endregion
+	// region Chip groups
+	
+	/**
+	 * @return self
+	 * @see #setChipGroupClassifier(SerializableFunction)
+	 */
+	public ChipComboBox<T> withChipGroupClassifier(final SerializableFunction<T, String> chipGroupClassifier)
+	{
+		this.setChipGroupClassifier(chipGroupClassifier);
+		return this;
+	}
+	
+	/**
+	 * Displays the selected items in collapsible {@link ChipGroup groups}.
+	 * <p/>
+	 * Every item is assigned to the group with the name that is returned by the classifier. Adding or removing an item
+	 * only updates the group of the item. The {@link ChipComponent ChipComponents} of collapsed groups are not
+	 * created.
+	 *
+	 * @param chipGroupClassifier returns the (non-null) group name of an item, which must not change while the item is
+	 *                            selected; <code>null</code> disables grouping
+	 */
+	public void setChipGroupClassifier(final SerializableFunction<T, String> chipGroupClassifier)
+	{
+		this.chipGroupClassifier = chipGroupClassifier;
+		this.rebuildChips();
+	}
+	
+	public SerializableFunction<T, String> getChipGroupClassifier()
+	{
+		return this.chipGroupClassifier;
+	}
+	
+	/**
+	 * @return self
+	 * @see #setChipGroupsInitiallyOpened(boolean)
+	 */
+	public ChipComboBox<T> withChipGroupsInitiallyOpened(final boolean chipGroupsInitiallyOpened)
+	{
+		this.setChipGroupsInitiallyOpened(chipGroupsInitiallyOpened);
+		return this;
+	}
+	
+	/**
+	 * Defines if newly created {@link ChipGroup groups} are opened. The default value is {@code true}.
+	 */
+	public void setChipGroupsInitiallyOpened(final boolean chipGroupsInitiallyOpened)
+	{
+		this.chipGroupsInitiallyOpened = chipGroupsInitiallyOpened;
+	}
+	
+	public boolean isChipGroupsInitiallyOpened()
+	{
+		return this.chipGroupsInitiallyOpened;
+	}
+	
+	/**
+	 * Returns the currently displayed {@link ChipGroup groups} (by name).
+	 * <p/>
+	 * NOTE: If the contents are modified from the outside this component may break
+	 */
+	public Map<String, ChipGroup<T>> getChipGroups()
+	{
+		return this.chipGroups;
+	}
+	
+	// endregion
+	// region Client side chip rendering
+	
+	/**
+	 * @return self
+	 * @see #setClientSideChipRendering(boolean)
+	 */
+	public ChipComboBox<T> withClientSideChipRendering(final boolean clientSideChipRendering)
+	{
+		this.setClientSideChipRendering(clientSideChipRendering);
+		return this;
+	}
+	
+	/**
+	 * Renders the chips on the client using a {@link ClientChipList} instead of the {@link #getChipsContainer()}.
+	 * <p/>
+	 * Only the key and label of every selected item is kept and sent. The default value is {@code false}.
+	 *
+	 * @apiNote The {@link #setChipsSupplier(SerializableFunction) chips supplier} and
+	 * {@link #setChipGroupClassifier(SerializableFunction) groups} are not used while this is active.
+	 */
+	public void setClientSideChipRendering(final boolean clientSideChipRendering)
+	{
+		if(this.clientSideChipRendering == clientSideChipRendering)
+		{
+			return;
+		}
+		
+		this.clientSideChipRendering = clientSideChipRendering;
+		if(clientSideChipRendering)
+		{
+			this.clientChipList = this.createClientChipList();
+			this.getContent().replace(this.chipsContainer, this.clientChipList);
+		}
+		else
+		{
+			this.getContent().replace(this.clientChipList, this.chipsContainer);
+			this.clientChipList = null;
+		}
+		
+		this.rebuildChips();
+	}
+	
+	protected ClientChipList createClientChipList()
+	{
+		final ClientChipList list = new ClientChipList();
+		list.setReadonly(this.isReadOnly());
+		list.addChipRemoveListener(this::onClientChipRemove);
+		// Deltas are not part of the element's state -> send everything when (re-)attached
+		list.addAttachListener(ev -> this.sendClientChips());
+		return list;
+	}
+	
+	public boolean isClientSideChipRendering()
+	{
+		return this.clientSideChipRendering;
+	}
+	
+	// endregion
+	// region Lazy available items
+	
+	/**
+	 * @return self
+	 * @see #setLazyAvailableItems(boolean)
+	 */
+	public ChipComboBox<T> withLazyAvailableItems(final boolean lazyAvailableItems)
+	{
+		this.setLazyAvailableItems(lazyAvailableItems);
+		return this;
+	}
+	
+	/**
+	 * Defers providing the available items to the {@link ComboBox} until it's opened (or a filter is entered) for the
+	 * first time. Until then only the item source and the selection are kept. The default value is {@code false}.
+	 * <p/>
+	 * This is useful when there are a lot of instances in a view that are most likely never opened.
+	 *
+	 * @apiNote Has no effect if the items were already provided to the {@link ComboBox}
+	 */
+	public void setLazyAvailableItems(final boolean lazyAvailableItems)
+	{
+		this.lazyAvailableItems = lazyAvailableItems;
+		if(!lazyAvailableItems && !this.availableItemsDataProviderBound)
+		{
+			this.bindAvailableItemsDataProvider();
+		}
+	}
+	
+	public boolean isLazyAvailableItems()
+	{
+		return this.lazyAvailableItems;
+	}
+	
+	// endregion
+	// region Release chips on detach
+	
+	/**
+	 * @return self
+	 * @see #setReleaseChipsOnDetach(boolean)
+	 */
+	public ChipComboBox<T> withReleaseChipsOnDetach(final boolean releaseChipsOnDetach)
+	{
+		this.setReleaseChipsOnDetach(releaseChipsOnDetach);
+		return this;
+	}
+	
+	/**
+	 * Removes all chips when the component is detached (e.g. in a cached view) and creates them again from the
+	 * selected items when it's attached. The default value is {@code false}.
+	 */
+	public void setReleaseChipsOnDetach(final boolean releaseChipsOnDetach)
+	{
+		this.releaseChipsOnDetach = releaseChipsOnDetach;
+	}
+	
+	public boolean isReleaseChipsOnDetach()
+	{
+		return this.releaseChipsOnDetach;
+	}
+	
+	// endregion
+	// region Queued item updates
+	
+	/**
+	 * Queues items that should be added to the available items.
+	 * <p/>
+	 * This method is thread-safe: All updates that are queued (from any thread) until the UI is accessed are
+	 * coalesced and applied together in a single {@link UI#access(com.vaadin.flow.server.Command) UI access}.
+	 *
+	 * @see #setQueuedItemUpdatesInterval(Duration)
+	 */
+	public void queueAddItems(final Collection<T> items)
+	{
+		this.queueItemUpdate(new QueuedItemUpdate<>(true, List.copyOf(items)));
+	}
+	
+	/**
+	 * Queues items that should be removed from the available items (and the selection).
+	 * <p/>
+	 * This method is thread-safe: All updates that are queued (from any thread) until the UI is accessed are
+	 * coalesced and applied together in a single {@link UI#access(com.vaadin.flow.server.Command) UI access}.
+	 *
+	 * @see #setQueuedItemUpdatesInterval(Duration)
+	 */
+	public void queueRemoveItems(final Collection<T> items)
+	{
+		this.queueItemUpdate(new QueuedItemUpdate<>(false, List.copyOf(items)));
+	}
+	
+	protected void queueItemUpdate(final QueuedItemUpdate<T> update)
+	{
+		this.queuedItemUpdates.add(update);
+		
+		final UI ui = this.attachedUI;
+		// Only schedule once; updates that are queued in the meantime are applied in the same batch
+		if(ui == null || !this.queuedItemUpdatesScheduled.compareAndSet(false, true))
+		{
+			return;
+		}
+		
+		final long intervalMs = this.queuedItemUpdatesInterval.toMillis();
+		if(intervalMs > 0)
+		{
+			CompletableFuture.delayedExecutor(intervalMs, TimeUnit.MILLISECONDS)
+				.execute(() -> ui.access(this::applyQueuedItemUpdates));
+		}
+		else
+		{
+			ui.access(this::applyQueuedItemUpdates);
+		}
+	}
+	
+	/**
+	 * Applies all queued item updates incrementally.
+	 * <p/>
+	 * NOTE: Must be called while holding the session lock
+	 */
+	protected void applyQueuedItemUpdates()
+	{
+		// Reset first: Updates queued from now on must be scheduled again
+		this.queuedItemUpdatesScheduled.set(false);
+		
+		final Set<T> addedItems = new LinkedHashSet<>();
+		final Set<T> removedItems = new LinkedHashSet<>();
+		QueuedItemUpdate<T> update;
+		while((update = this.queuedItemUpdates.poll()) != null)
+		{
+			if(update.add())
+			{
+				removedItems.removeAll(update.items());
+				addedItems.addAll(update.items());
+			}
+			else
+			{
+				addedItems.removeAll(update.items());
+				removedItems.addAll(update.items());
+			}
+		}
+		
+		if(!addedItems.isEmpty() || !removedItems.isEmpty())
+		{
+			this.updateItemSource(addedItems, removedItems);
+		}
+	}
+	
+	/**
+	 * Adds/Removes the items to/from the item source without replacing it.
+	 * <p/>
+	 * If the source can't be modified (e.g. a {@link SharedChipItemSource}) or might be used by other instances (it
+	 * was set with {@link #setItemSource(ChipItemSource)}) this instance switches to a copy.
+	 */
+	protected void updateItemSource(final Collection<T> addedItems, final Collection<T> removedItems)
+	{
+		if(!this.itemSourceOwned || !(this.itemSource instanceof CollectionChipItemSource))
+		{
+			this.itemSource = new CollectionChipItemSource<>(this.itemSource.getItems());
+			this.itemSourceOwned = true;
+			// The labels and sorted items might be shared with other instances
+			if(this.precomputedItemLabels != null)
+			{
+				this.precomputedItemLabels = this.precomputedItemLabels.copy();
+			}
+			if(this.sortedItems != null)
+			{
+				this.sortedItems = new ArrayList<>(this.sortedItems);
+			}
+			if(this.sourceItemKeys != null)
+			{
+				this.sourceItemKeys = (BitSet)this.sourceItemKeys.clone();
+			}
+		}
+		final CollectionChipItemSource<T> collectionItemSource = (CollectionChipItemSource<T>)this.itemSource;
+		collectionItemSource.removeItems(removedItems);
+		// Items that are already present are not added again
+		final List<T> newItems = addedItems.stream()
+			.filter(item -> !collectionItemSource.contains(item))
+			.toList();
+		collectionItemSource.addItems(newItems);
+		if(this.precomputedItemLabels != null)
+		{
+			// Only compute the labels of the changed items
+			this.precomputedItemLabels.remove(removedItems);
+			this.precomputedItemLabels.add(newItems);
+		}
+		
+		if(this.sourceItemKeys != null)
+		{
+			removedItems.forEach(item -> this.sourceItemKeys.clear(this.getItemKey(item)));
+			newItems.forEach(item -> this.sourceItemKeys.set(this.getItemKey(item)));
+		}
+		
+		if(this.sortedItems != null)
+		{
+			removedItems.forEach(this::removeSorted);
+			newItems.forEach(this::insertSorted);
+		}
+		this.itemsByRankingKey = null;
+		
+		// Remove selected values that were removed
+		final Set<T> values = new LinkedHashSet<>(this.getValue());
+		if(values.removeAll(removedItems))
+		{
+			this.updateValues(values, false);
+		}
+		
+		this.updateAvailableItems();
 	}
 	
-	protected void updateRequiredIndicatorOfCbAvailableItems()
+	/**
+	 * @return self
+	 * @see #setQueuedItemUpdatesInterval(Duration)
+	 */
+	public ChipComboBox<T> withQueuedItemUpdatesInterval(final Duration queuedItemUpdatesInterval)
 	{
-		this.cbAvailableItems.setRequiredIndicatorVisible(this.isRequiredIndicatorVisible());
+		this.setQueuedItemUpdatesInterval(queuedItemUpdatesInterval);
+		return this;
 	}
 	
 	/**
-	 * {@inheritDoc}
-	 *
-	 * @apiNote Currently selected/set values that no longer exist in the new items collection will be removed.
+	 * Sets the interval in which queued item updates are applied, e.g. the push interval. All updates queued during
+	 * this interval are applied together.
+	 * <p/>
+	 * The default value is {@link Duration#ZERO}: The updates are applied as soon as the UI can be accessed.
 	 */
-	@Override
-	public void setItems(final Collection<T> items)
+	public void setQueuedItemUpdatesInterval(final Duration queuedItemUpdatesInterval)
 	{
-		Objects.requireNonNull(items);
-		this.allAvailableItems.clear();
-		this.allAvailableItems.addAll(items);
-		
-		// Remove selected values that are not in allAvailableItems
-		final Set<T> values = new LinkedHashSet<>(this.getValue());
-		values.removeIf(v -> !this.allAvailableItems.contains(v));
-		this.updateValues(values, false);
-		
-		// Force UI update here to ensure everything (selected + available) is shown correctly
-		this.updateUI();
+		this.queuedItemUpdatesInterval = Objects.requireNonNull(queuedItemUpdatesInterval);
 	}
 	
-	// region Chips Supplier
+	public Duration getQueuedItemUpdatesInterval()
+	{
+		return this.queuedItemUpdatesInterval;
+	}
 	
 	/**
-	 * Returns the current supplier for creating new {@link ChipComponent ChipComponents}
-	 *
-	 * @return the current supplier for creating new {@link ChipComponent ChipComponents}
+	 * An update of the available items that was queued from any thread.
 	 */
-	public Function<T, ChipComponent<T>> getChipsSupplier()
+	protected record QueuedItemUpdate<T>(boolean add, Collection<T> items) implements Serializable
 	{
-		return this.chipsSupplier;
 	}
 	
+	// endregion
+	// region Item key extractor
+	
 	/**
 	 * @return self
-	 * @see #setChipsSupplier(SerializableFunction)
+	 * @see #setItemKeyExtractor(ItemKeyExtractor)
 	 */
-	public ChipComboBox<T> withChipsSupplier(final SerializableFunction<T, ChipComponent<T>> chipsSupplier)
+	public ChipComboBox<T> withItemKeyExtractor(final ItemKeyExtractor<T> itemKeyExtractor)
 	{
-		this.setChipsSupplier(chipsSupplier);
+		this.setItemKeyExtractor(itemKeyExtractor);
 		return this;
 	}
 	
 	/**
-	 * Sets the supplier for creating new {@link ChipComponent ChipComponents}
+	 * Sets an extractor that maps every item to a unique int key (e.g. its ID).
+	 * <p/>
+	 * When set, the keys of the source and the selection are indexed in {@link BitSet BitSets}, so that checking if
+	 * an item is available or counting the available items doesn't require hashing the items. This is recommended
+	 * for large sources when the keys are dense.
+	 * <p/>
+	 * The bitmaps are an index in addition to the value (which is still a {@link Set}) and are built when they are
+	 * required for the first time. They are not serialized and a {@link SharedChipItemSource} shares its bitmap
+	 * between all instances.
 	 *
-	 * @param chipsSupplier supplier for creating new {@link ChipComponent ChipComponents}
+	 * @param itemKeyExtractor the extractor; <code>null</code> disables this
+	 * @throws IllegalArgumentException if the extractor returns a negative key
 	 */
-	public void setChipsSupplier(final SerializableFunction<T, ChipComponent<T>> chipsSupplier)
+	public void setItemKeyExtractor(final ItemKeyExtractor<T> itemKeyExtractor)
 	{
-		this.chipsSupplier = Objects.requireNonNull(chipsSupplier);
+		this.itemKeyExtractor = itemKeyExtractor;
+		
+		this.sourceItemKeys = null;
+		this.selectedItemKeys = null;
+		this.updateAvailableItems();
+	}
+	
+	public ItemKeyExtractor<T> getItemKeyExtractor()
+	{
+		return this.itemKeyExtractor;
 	}
 	
 	// endregion
@@ -326,10 +1425,27 @@ public class ChipComboBox<T> extends AbstractCompositeField<VerticalLayout, Chip
 	
 	/**
 	 * Get all available items, that can potentially get selected
+	 *
+	 * @implNote Creates a copy of the items; use {@link #getItemSource()} to access them directly
 	 */
 	public List<T> getAllAvailableItems()
 	{
-		return new ArrayList<>(this.allAvailableItems);
+		return new ArrayList<>(this.itemSource.getItems());
+	}
+	
+	/**
+	 * @return self
+	 * @see #setItemSource(ChipItemSource)
+	 */
+	public ChipComboBox<T> withItemSource(final ChipItemSource<T> itemSource)
+	{
+		this.setItemSource(itemSource);
+		return this;
+	}
+	
+	public ChipItemSource<T> getItemSource()
+	{
+		return this.itemSource;
 	}
 	
 	public ChipComboBox<T> withAllAvailableItems(final Collection<T> allAvailableItems)
@@ -470,6 +1586,352 @@ public class ChipComboBox<T> extends AbstractCompositeField<VerticalLayout, Chip
 		}
 	}
 	
+	// endregion
+	// region Item comparator
+	
+	/**
+	 * @return self
+	 * @see #setItemComparator(SerializableComparator)
+	 */
+	public ChipComboBox<T> withItemComparator(final SerializableComparator<T> itemComparator)
+	{
+		this.setItemComparator(itemComparator);
+		return this;
+	}
+	
+	/**
+	 * Sorts the available items with the comparator.
+	 * <p/>
+	 * The items are only sorted when the available items are fetched for the first time after the items or the
+	 * comparator changed. Selecting/Deselecting an item doesn't sort the items again and added/removed items are
+	 * inserted/removed at their position. A {@link SharedChipItemSource} sorts its items only once per comparator.
+	 *
+	 * @param itemComparator the comparator; <code>null</code> uses the order of the item source
+	 * @apiNote The sort is stable: Items that the comparator considers equal keep the order of the item source.
+	 */
+	public void setItemComparator(final SerializableComparator<T> itemComparator)
+	{
+		this.itemComparator = itemComparator;
+		this.sortedItems = null;
+		this.updateAvailableItems();
+	}
+	
+	public SerializableComparator<T> getItemComparator()
+	{
+		return this.itemComparator;
+	}
+	
+	// endregion
+	// region Item usage ranking
+	
+	/**
+	 * @return self
+	 * @see #setItemUsageRanking(ItemUsageRanking)
+	 */
+	public ChipComboBox<T> withItemUsageRanking(final ItemUsageRanking<T> itemUsageRanking)
+	{
+		this.setItemUsageRanking(itemUsageRanking);
+		return this;
+	}
+	
+	/**
+	 * @return self
+	 * @see #setItemUsageRanking(ItemUsageRanking, SerializableFunction)
+	 */
+	public <K> ChipComboBox<T> withItemUsageRanking(
+		final ItemUsageRanking<K> itemUsageRanking,
+		final SerializableFunction<T, K> keyFunction)
+	{
+		this.setItemUsageRanking(itemUsageRanking, keyFunction);
+		return this;
+	}
+	
+	/**
+	 * Records the selected items themselves in the (shared) {@link ItemUsageRanking}.
+	 *
+	 * @see #setItemUsageRanking(ItemUsageRanking, SerializableFunction)
+	 */
+	public void setItemUsageRanking(final ItemUsageRanking<T> itemUsageRanking)
+	{
+		this.setItemUsageRanking(itemUsageRanking, null);
+	}
+	
+	/**
+	 * Records the key of every selected item in the (shared) {@link ItemUsageRanking} and shows the items with the top
+	 * keys first when the {@link ComboBox} is opened without a filter.
+	 * <p/>
+	 * The ranking keeps its top keys alive. Use e.g. IDs as keys for items that are specific to a session (like
+	 * entities).
+	 *
+	 * @param itemUsageRanking the ranking; <code>null</code> disables the ranking
+	 * @param keyFunction      returns the key of an item that is recorded; <code>null</code> records the items
+	 *                         themselves
+	 */
+	@SuppressWarnings("unchecked")
+	public <K> void setItemUsageRanking(
+		final ItemUsageRanking<K> itemUsageRanking,
+		final SerializableFunction<T, K> keyFunction)
+	{
+		this.itemUsageRanking = (ItemUsageRanking<Object>)(ItemUsageRanking<?>)itemUsageRanking;
+		this.itemUsageRankingKeyFunction = itemUsageRanking != null && keyFunction != null ? keyFunction::apply : null;
+		this.itemsByRankingKey = null;
+		this.rankedTopKeys = itemUsageRanking != null ? this.itemUsageRanking.getTopItems() : List.of();
+		this.updateAvailableItems();
+	}
+	
+	public ItemUsageRanking<?> getItemUsageRanking()
+	{
+		return this.itemUsageRanking;
+	}
+	
+	// endregion
+	// region Hierarchical items
+	
+	/**
+	 * @return self
+	 * @see #setHierarchicalItems(HierarchicalDataProvider)
+	 */
+	public ChipComboBox<T> withHierarchicalItems(final HierarchicalDataProvider<T, ?> hierarchicalItems)
+	{
+		this.setHierarchicalItems(hierarchicalItems);
+		return this;
+	}
+	
+	/**
+	 * @see #setHierarchicalItems(HierarchicalDataProvider)
+	 * @see LazyChipItemHierarchy
+	 */
+	public void setHierarchicalItems(
+		final SerializableFunction<T, Collection<T>> childrenLoader,
+		final SerializablePredicate<T> hasChildrenPredicate)
+	{
+		this.setHierarchicalItems(new LazyChipItemHierarchy<>(childrenLoader, hasChildrenPredicate));
+	}
+	
+	/**
+	 * Shows the hierarchical items in a {@link TreeGrid} inside a collapsible {@link Details} below the
+	 * {@link ComboBox}. The tree is collapsed initially and its items are only fetched once it's opened; children are
+	 * only fetched when their parent is expanded (see {@link LazyChipItemHierarchy}).
+	 * <p/>
+	 * Clicking an item selects it, clicking a selected item (marked with the part name
+	 * <code>xdev-chip-selected</code>) deselects it.
+	 * <p/>
+	 * The selected items don't need to be part of the {@link #setItemSource(ChipItemSource) item source}, which can
+	 * therefore be left empty or contain only e.g. frequently used items.
+	 *
+	 * @param hierarchicalItems the hierarchical items; <code>null</code> removes the tree
+	 */
+	public void setHierarchicalItems(final HierarchicalDataProvider<T, ?> hierarchicalItems)
+	{
+		if(hierarchicalItems == null)
+		{
+			if(this.treeAvailableItems != null)
+			{
+				this.getContent().remove(this.treeAvailableItemsDetails);
+				this.treeAvailableItems = null;
+				this.treeAvailableItemsDetails = null;
+			}
+			return;
+		}
+		
+		if(this.treeAvailableItems == null)
+		{
+			this.treeAvailableItems = this.createTreeAvailableItems();
+			this.treeAvailableItemsDetails = this.createTreeAvailableItemsDetails(this.treeAvailableItems);
+			this.getContent().addComponentAtIndex(
+				this.getContent().indexOf(this.comboBoxContainer) + 1,
+				this.treeAvailableItemsDetails);
+		}
+		this.treeAvailableItems.setDataProvider(hierarchicalItems);
+	}
+	
+	protected TreeGrid<T> createTreeAvailableItems()
+	{
+		final TreeGrid<T> tree = new TreeGrid<>();
+		tree.addClassName("xdev-chip-combobox-tree");
+		tree.setClassName("xdev-chip-combobox-tree-readonly", this.isReadOnly());
+		tree.addHierarchyColumn(item -> this.cbAvailableItems.getItemLabelGenerator().apply(item));
+		tree.setSelectionMode(Grid.SelectionMode.NONE);
+		tree.setPartNameGenerator(item -> this.getValue().contains(item) ? "xdev-chip-selected" : null);
+		tree.setHeight("15em");
+		tree.setWidthFull();
+		tree.addItemClickListener(ev ->
+		{
+			if(this.isReadOnly())
+			{
+				return;
+			}
+			
+			if(this.getValue().contains(ev.getItem()))
+			{
+				this.removeItem(ev.getItem(), ev.isFromClient());
+			}
+			else
+			{
+				this.addItem(ev.getItem(), ev.isFromClient());
+			}
+		});
+		return tree;
+	}
+	
+	protected Details createTreeAvailableItemsDetails(final TreeGrid<T> tree)
+	{
+		final Details details = new Details(this.treeAvailableItemsSummary, tree);
+		details.setOpened(false);
+		details.setWidthFull();
+		// Hidden components are not sent to the client, so the tree doesn't fetch any items while closed
+		tree.setVisible(false);
+		details.addOpenedChangeListener(ev -> tree.setVisible(ev.isOpened()));
+		return details;
+	}
+	
+	public String getTreeAvailableItemsSummary()
+	{
+		return this.treeAvailableItemsSummary;
+	}
+	
+	/**
+	 * @return self
+	 * @see #setTreeAvailableItemsSummary(String)
+	 */
+	public ChipComboBox<T> withTreeAvailableItemsSummary(final String treeAvailableItemsSummary)
+	{
+		this.setTreeAvailableItemsSummary(treeAvailableItemsSummary);
+		return this;
+	}
+	
+	/**
+	 * Sets the summary text of the {@link Details} that contain the tree of
+	 * {@link #setHierarchicalItems(HierarchicalDataProvider) hierarchical items}. The default value is empty.
+	 */
+	public void setTreeAvailableItemsSummary(final String treeAvailableItemsSummary)
+	{
+		this.treeAvailableItemsSummary = Objects.requireNonNull(treeAvailableItemsSummary);
+		if(this.treeAvailableItemsDetails != null)
+		{
+			this.treeAvailableItemsDetails.setSummaryText(treeAvailableItemsSummary);
+		}
+	}
+	
+	/**
+	 * Refreshes the rows of the (de)selected items in the tree, so that their selected mark is updated.
+	 */
+	protected void refreshTreeAvailableItems(final Set<T> addedItems, final Set<T> removedItems)
+	{
+		if(this.treeAvailableItems == null || !this.treeAvailableItems.isVisible())
+		{
+			return;
+		}
+		addedItems.forEach(this.treeAvailableItems.getDataCommunicator()::refresh);
+		removedItems.forEach(this.treeAvailableItems.getDataCommunicator()::refresh);
+	}
+	
+	/**
+	 * Returns the {@link TreeGrid} which contains the hierarchical items or <code>null</code> if no
+	 * {@link #setHierarchicalItems(HierarchicalDataProvider) hierarchical items} are set.
+	 * <p/>
+	 * NOTE: If the contents are modified from the outside this component may break
+	 */
+	public TreeGrid<T> getTreeAvailableItems()
+	{
+		return this.treeAvailableItems;
+	}
+	
+	/**
+	 * Returns the {@link Details} which contain the {@link #getTreeAvailableItems() tree} (e.g. to open it initially)
+	 * or <code>null</code> if no {@link #setHierarchicalItems(HierarchicalDataProvider) hierarchical items} are set.
+	 */
+	public Details getTreeAvailableItemsDetails()
+	{
+		return this.treeAvailableItemsDetails;
+	}
+	
+	// endregion
+	// region Precomputed item labels
+	
+	/**
+	 * @return self
+	 * @see #setPrecomputeItemLabels(boolean)
+	 */
+	public ChipComboBox<T> withPrecomputeItemLabels(final boolean precomputeItemLabels)
+	{
+		this.setPrecomputeItemLabels(precomputeItemLabels);
+		return this;
+	}
+	
+	/**
+	 * Computes the labels and normalized filter keys of all items in parallel when the items are set
+	 * (see {@link PrecomputedItemLabels}). The default value is {@code false}.
+	 * <p/>
+	 * Afterwards filtering and the labels of the chips don't require calling the {@link ItemLabelGenerator} again.
+	 * This is recommended for large item sources.
+	 *
+	 * @apiNote When active, filtering ignores accents/diacritics. The {@link ItemLabelGenerator} of the
+	 * {@link ComboBox} is called from multiple threads and must therefore be thread-safe.
+	 */
+	public void setPrecomputeItemLabels(final boolean precomputeItemLabels)
+	{
+		this.precomputeItemLabels = precomputeItemLabels;
+		this.updatePrecomputedItemLabels();
+		this.setChipItemLabelGenerator(this.chipItemLabelGenerator);
+	}
+	
+	public boolean isPrecomputeItemLabels()
+	{
+		return this.precomputeItemLabels;
+	}
+	
+	protected void updatePrecomputedItemLabels()
+	{
+		this.precomputedItemLabels = null;
+		if(this.precomputeItemLabels)
+		{
+			this.getPrecomputedItemLabels();
+		}
+	}
+	
+	/**
+	 * Returns the {@link PrecomputedItemLabels} or <code>null</code> if they are not used. They are used when
+	 * {@link #setPrecomputeItemLabels(boolean) activated} or for filtering the labels of a
+	 * {@link BatchItemLabelGenerator} (so that the labels are only resolved once and not on every filter change).
+	 * <p/>
+	 * The labels are computed when required for the first time; shared sources share them.
+	 */
+	protected PrecomputedItemLabels<T> getPrecomputedItemLabels()
+	{
+		final ItemLabelGenerator<T> labelGenerator = this.cbAvailableItems.getItemLabelGenerator();
+		if(this.precomputedItemLabels == null
+			&& (this.precomputeItemLabels || labelGenerator instanceof BatchItemLabelGenerator))
+		{
+			this.precomputedItemLabels = this.itemSource.precomputeItemLabels(labelGenerator);
+		}
+		return this.precomputedItemLabels;
+	}
+	
+	/**
+	 * Returns the {@link ItemLabelGenerator} for the chips: The {@link PrecomputedItemLabels} if they were computed
+	 * with the same generator, otherwise the {@link #chipItemLabelGenerator}.
+	 */
+	protected ItemLabelGenerator<T> getEffectiveChipItemLabelGenerator()
+	{
+		// Labels of a BatchItemLabelGenerator are only precomputed for filtering
+		final PrecomputedItemLabels<T> labels = this.precomputeItemLabels
+			? this.getPrecomputedItemLabels()
+			: this.precomputedItemLabels;
+		return labels != null && labels.getLabelGenerator() == this.chipItemLabelGenerator
+			? labels
+			: this.chipItemLabelGenerator;
+	}
+	
+	/**
+	 * Returns the label of a chip. The chips look up their labels here, so that they always use the current
+	 * {@link #precomputedItemLabels}.
+	 */
+	protected String getChipItemLabel(final T item)
+	{
+		return this.getEffectiveChipItemLabelGenerator().apply(item);
+	}
+	
 	// endregion
 	// region Item Label generator
 	
@@ -479,11 +1941,15 @@ public class ChipComboBox<T> extends AbstractCompositeField<VerticalLayout, Chip
 	public void setChipItemLabelGenerator(final ItemLabelGenerator<T> generator)
 	{
 		this.chipItemLabelGenerator = Objects.requireNonNull(generator, "The item label generator can not be null");
-		this.selectedComponents.forEach(chipComp ->
+		this.streamChipComponents().forEach(chipComp ->
 		{
-			chipComp.setItemLabelGenerator(this.chipItemLabelGenerator);
+			chipComp.setItemLabelGenerator(this::getChipItemLabel);
 			chipComp.updateTextFromItemLabelGenerator();
 		});
+		if(this.clientSideChipRendering)
+		{
+			this.sendClientChips();
+		}
 	}
 	
 	/**
@@ -505,6 +1971,7 @@ public class ChipComboBox<T> extends AbstractCompositeField<VerticalLayout, Chip
 	public void setItemLabelGenerator(final ItemLabelGenerator<T> generator)
 	{
 		this.cbAvailableItems.setItemLabelGenerator(generator);
+		this.updatePrecomputedItemLabels();
 		this.setChipItemLabelGenerator(generator);
 	}
 	
@@ -521,6 +1988,36 @@ public class ChipComboBox<T> extends AbstractCompositeField<VerticalLayout, Chip
 		return this;
 	}
 	
+	/**
+	 * Convenience method, which sets a {@link BatchItemLabelGenerator} for *BOTH* {@link ComboBox} and the
+	 * {@link ChipComponent}s.
+	 * <p/>
+	 * This is useful when only IDs are selected: The labels of new chips (and the fetched available items) are
+	 * resolved with batched lookups and cached. The labels of all items are only resolved (in batches of
+	 * {@link BatchItemLabelGenerator#DEFAULT_BATCH_SIZE}) when filtering for the first time and kept as
+	 * {@link PrecomputedItemLabels} (so filtering ignores accents/diacritics).
+	 * <p/>
+	 * To configure the batch/cache size or share the cache between instances, create a
+	 * {@link BatchItemLabelGenerator} and use {@link #setItemLabelGenerator(ItemLabelGenerator)}.
+	 *
+	 * @param batchResolver resolves the labels of the given items
+	 */
+	public void setBatchItemLabelResolver(final SerializableFunction<Collection<T>, Map<T, String>> batchResolver)
+	{
+		this.setItemLabelGenerator(new BatchItemLabelGenerator<>(batchResolver));
+	}
+	
+	/**
+	 * @return self
+	 * @see #setBatchItemLabelResolver(SerializableFunction)
+	 */
+	public ChipComboBox<T> withBatchItemLabelResolver(
+		final SerializableFunction<Collection<T>, Map<T, String>> batchResolver)
+	{
+		this.setBatchItemLabelResolver(batchResolver);
+		return this;
+	}
+	
 	// endregion
 	
 	/*
@@ -553,7 +2050,15 @@ public class ChipComboBox<T> extends AbstractCompositeField<VerticalLayout, Chip
 		super.setReadOnly(readOnly);
 		
 		this.cbAvailableItems.setReadOnly(readOnly);
-		this.selectedComponents.forEach(comp -> comp.setReadonly(readOnly));
+		this.streamChipComponents().forEach(comp -> comp.setReadonly(readOnly));
+		if(this.clientChipList != null)
+		{
+			this.clientChipList.setReadonly(readOnly);
+		}
+		if(this.treeAvailableItems != null)
+		{
+			this.treeAvailableItems.setClassName("xdev-chip-combobox-tree-readonly", readOnly);
+		}
 	}
 	
 	/**
@@ -664,4 +2169,15 @@ public class ChipComboBox<T> extends AbstractCompositeField<VerticalLayout, Chip
 	{
 		return this.chipsContainer;
 	}
+	
+	/**
+	 * Returns the {@link ClientChipList} which renders the selected items when
+	 * {@link #setClientSideChipRendering(boolean) client side chip rendering} is active, otherwise <code>null</code>.
+	 * <p/>
+	 * NOTE: If the contents are modified from the outside this component may break
+	 */
+	public ClientChipList getClientChipList()
+	{
+		return this.clientChipList;
+	}
 }
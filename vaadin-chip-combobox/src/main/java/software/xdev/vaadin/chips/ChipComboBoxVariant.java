@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2021 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.chips;
+
+import com.vaadin.flow.component.shared.ThemeVariant;
+
+
+/**
+ * Theme variants of the {@link ChipComboBox}; the styles are defined in <code>xdev-chip-combobox.css</code>.
+ */
+public enum ChipComboBoxVariant implements ThemeVariant
+{
+	/**
+	 * Smaller chips (font-size and padding)
+	 */
+	COMPACT("compact"),
+	/**
+	 * Less space between the chips
+	 */
+	DENSE("dense");
+	
+	private final String variant;
+	
+	ChipComboBoxVariant(final String variant)
+	{
+		this.variant = variant;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getVariantName()
+	{
+		return this.variant;
+	}
+}
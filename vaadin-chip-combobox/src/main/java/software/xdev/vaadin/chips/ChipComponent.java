@@ -24,17 +24,19 @@ import com.vaadin.flow.component.HasStyle;
 import com.vaadin.flow.component.ItemLabelGenerator;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.VaadinIcon;
-import com.vaadin.flow.component.orderedlayout.FlexComponent.Alignment;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
-import com.vaadin.flow.dom.Style;
 import com.vaadin.flow.shared.Registration;
 
 
 /**
  * Represents a Chip shown underneath the {@link ChipComboBox}
+ * <p/>
+ * The chip is styled by the shared <code>xdev-chip-combobox.css</code> (instead of inline styles per instance).
  */
+@CssImport("./xdev-chip-combobox.css")
 public class ChipComponent<T> extends Composite<HorizontalLayout> implements
 	HasStyle,
 	HasSize
@@ -54,23 +56,17 @@ public class ChipComponent<T> extends Composite<HorizontalLayout> implements
 	
 	protected void initUI()
 	{
-		this.label.getStyle().set("font-size", "var(--lumo-font-size-s)");
+		this.label.addClassName("xdev-chip-label");
 		
 		this.btnDelete.setDisableOnClick(true);
 		this.btnDelete.addThemeVariants(ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_TERTIARY_INLINE);
-		this.btnDelete.getStyle().set("font-size", "var(--lumo-font-size-m)");
+		this.btnDelete.addClassName("xdev-chip-remove");
 		
 		this.label.setSizeUndefined();
 		this.btnDelete.setSizeUndefined();
 		
 		this.getContent().setSpacing(false);
-		this.getContent().setAlignItems(Alignment.CENTER);
-		
-		final Style style = this.getContent().getStyle();
-		style.set("background-color", "var(--lumo-contrast-10pct)");
-		style.set("border-radius", "var(--lumo-font-size-s)");
-		style.set("margin", "var(--lumo-space-xs)");
-		style.set("padding-left", " var(--lumo-space-s)");
+		this.getContent().addClassName("xdev-chip");
 		
 		this.getContent().add(this.label, this.btnDelete);
 	}
@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2021 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.chips;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.vaadin.flow.component.Composite;
+import com.vaadin.flow.component.HasSize;
+import com.vaadin.flow.component.HasStyle;
+import com.vaadin.flow.component.details.Details;
+import com.vaadin.flow.component.orderedlayout.FlexLayout;
+import com.vaadin.flow.function.SerializableFunction;
+
+
+/**
+ * A collapsible section of the {@link ChipComboBox} that contains all selected items of one group.
+ * <p/>
+ * {@link ChipComponent ChipComponents} are only created while the group is opened. When the group gets collapsed they
+ * are released again, so that only the selected items themselves are kept.
+ */
+public class ChipGroup<T> extends Composite<Details> implements
+	HasStyle,
+	HasSize
+{
+	protected final String name;
+	protected final SerializableFunction<T, ChipComponent<T>> chipFactory;
+	
+	protected final Set<T> items = new LinkedHashSet<>();
+	protected final Map<T, ChipComponent<T>> chipComponents = new LinkedHashMap<>();
+	
+	protected final FlexLayout chipsContainer = new FlexLayout();
+	
+	public ChipGroup(final String name, final SerializableFunction<T, ChipComponent<T>> chipFactory)
+	{
+		this.name = Objects.requireNonNull(name, "The name of a group can not be null");
+		this.chipFactory = Objects.requireNonNull(chipFactory);
+		
+		this.initUI();
+		this.initListeners();
+	}
+	
+	protected void initUI()
+	{
+		this.chipsContainer.addClassName("xdev-chip-group-chips");
+		
+		this.getContent().add(this.chipsContainer);
+		this.getContent().setOpened(true);
+		
+		this.updateSummary();
+	}
+	
+	protected void initListeners()
+	{
+		this.getContent().addOpenedChangeListener(ev -> this.updateChipComponents());
+	}
+	
+	/**
+	 * Creates the {@link ChipComponent ChipComponents} when the group is opened and releases them when it's
+	 * collapsed.
+	 */
+	protected void updateChipComponents()
+	{
+		if(!this.isOpened())
+		{
+			this.chipsContainer.removeAll();
+			this.chipComponents.clear();
+			return;
+		}
+		
+		this.items.stream()
+			.filter(item -> !this.chipComponents.containsKey(item))
+			.forEach(this::addChipComponent);
+	}
+	
+	protected void addChipComponent(final T item)
+	{
+		final ChipComponent<T> chipComponent = this.chipFactory.apply(item);
+		this.chipComponents.put(item, chipComponent);
+		this.chipsContainer.add(chipComponent);
+	}
+	
+	protected void updateSummary()
+	{
+		this.getContent().setSummaryText(this.name + " (" + this.items.size() + ")");
+	}
+	
+	/**
+	 * Adds the item to this group.
+	 *
+	 * @return <code>true</code> if the item was not already present in this group
+	 */
+	public boolean addItem(final T item)
+	{
+		if(!this.items.add(item))
+		{
+			return false;
+		}
+		
+		if(this.isOpened())
+		{
+			this.addChipComponent(item);
+		}
+		this.updateSummary();
+		return true;
+	}
+	
+	/**
+	 * Removes the item from this group.
+	 *
+	 * @return <code>true</code> if the item was present in this group
+	 */
+	public boolean removeItem(final T item)
+	{
+		if(!this.items.remove(item))
+		{
+			return false;
+		}
+		
+		final ChipComponent<T> chipComponent = this.chipComponents.remove(item);
+		if(chipComponent != null)
+		{
+			this.chipsContainer.remove(chipComponent);
+		}
+		this.updateSummary();
+		return true;
+	}
+	
+	public boolean isEmpty()
+	{
+		return this.items.isEmpty();
+	}
+	
+	public String getName()
+	{
+		return this.name;
+	}
+	
+	/**
+	 * Returns the items of this group (in the order they were added).
+	 */
+	public Set<T> getItems()
+	{
+		return Collections.unmodifiableSet(this.items);
+	}
+	
+	/**
+	 * Returns the currently created {@link ChipComponent ChipComponents}. This is empty if the group is collapsed.
+	 */
+	public Collection<ChipComponent<T>> getChipComponents()
+	{
+		return Collections.unmodifiableCollection(this.chipComponents.values());
+	}
+	
+	public boolean isOpened()
+	{
+		return this.getContent().isOpened();
+	}
+	
+	public void setOpened(final boolean opened)
+	{
+		this.getContent().setOpened(opened);
+		// The listener is only fired when the value changed
+		this.updateChipComponents();
+	}
+	
+	/**
+	 * Returns the {@link FlexLayout} with the {@link ChipComponent ChipComponents} of this group.
+	 * <p/>
+	 * NOTE: If the contents are modified from the outside this component may break
+	 */
+	public FlexLayout getChipsContainer()
+	{
+		return this.chipsContainer;
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2021 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.chips;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.vaadin.flow.component.ItemLabelGenerator;
+
+
+/**
+ * The source of all items that can potentially get selected in a {@link ChipComboBox}.
+ * <p/>
+ * A {@link ChipComboBox} only keeps a reference to its source. The same source can therefore be used by multiple
+ * instances, which is also written only once when they are serialized together (e.g. in the same session).
+ */
+public interface ChipItemSource<T> extends Serializable
+{
+	/**
+	 * Returns all items of this source.
+	 * <p/>
+	 * NOTE: The returned collection must not be modified
+	 */
+	Collection<T> getItems();
+	
+	default Stream<T> stream()
+	{
+		return this.getItems().stream();
+	}
+	
+	default boolean contains(final T item)
+	{
+		return this.getItems().contains(item);
+	}
+	
+	/**
+	 * Computes the labels of all items of this source (see {@link PrecomputedItemLabels}).
+	 * <p/>
+	 * NOTE: The returned labels might be shared and must therefore not be modified
+	 */
+	default PrecomputedItemLabels<T> precomputeItemLabels(final ItemLabelGenerator<T> labelGenerator)
+	{
+		return PrecomputedItemLabels.compute(this.getItems(), labelGenerator);
+	}
+	
+	/**
+	 * Returns all items sorted by the comparator. The sort is stable, so items that are considered equal keep their
+	 * order.
+	 * <p/>
+	 * NOTE: The returned list might be shared and must therefore not be modified
+	 */
+	default List<T> sortItems(final Comparator<? super T> comparator)
+	{
+		final List<T> sortedItems = new ArrayList<>(this.getItems());
+		sortedItems.sort(comparator);
+		return sortedItems;
+	}
+	
+	/**
+	 * Returns the keys of all items (see {@link ChipComboBox#setItemKeyExtractor(ItemKeyExtractor)}).
+	 * <p/>
+	 * NOTE: The returned keys might be shared and must therefore not be modified
+	 *
+	 * @throws IllegalArgumentException if a key is negative
+	 */
+	default BitSet computeItemKeys(final ItemKeyExtractor<T> keyExtractor)
+	{
+		final BitSet keys = new BitSet();
+		this.getItems().forEach(item -> keys.set(keyExtractor.getCheckedKey(item)));
+		return keys;
+	}
+	
+	/**
+	 * Creates a new source with a copy of the given items.
+	 */
+	static <T> ChipItemSource<T> of(final Collection<T> items)
+	{
+		return new CollectionChipItemSource<>(items);
+	}
+	
+	static <T> ChipItemSource<T> empty()
+	{
+		return new CollectionChipItemSource<>(Collections.emptyList());
+	}
+}
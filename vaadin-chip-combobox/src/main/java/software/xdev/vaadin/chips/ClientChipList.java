@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2021 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.chips;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentEvent;
+import com.vaadin.flow.component.ComponentEventListener;
+import com.vaadin.flow.component.DomEvent;
+import com.vaadin.flow.component.EventData;
+import com.vaadin.flow.component.HasSize;
+import com.vaadin.flow.component.HasStyle;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.dependency.JsModule;
+import com.vaadin.flow.shared.Registration;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+
+/**
+ * Displays the chips of a {@link ChipComboBox} completely on the client.
+ * <p/>
+ * Only the key and label of each chip are sent to the client. The client only sends back the key of a removed chip.
+ * <p/>
+ * Changes can be sent as deltas using {@link #addChips(Map)} and {@link #removeChips(Collection)}. These are not
+ * part of the element's state, so the full list needs to be set again with {@link #setChips(Map)} when the component
+ * is (re-)attached.
+ */
+@Tag("xdev-chip-list")
+@JsModule("./xdev-chip-list.js")
+public class ClientChipList extends Component implements
+	HasStyle,
+	HasSize
+{
+	/**
+	 * Sets the chips that are displayed.
+	 *
+	 * @param chips key → label of the chips (in display order)
+	 */
+	public void setChips(final Map<String, String> chips)
+	{
+		this.getElement().setPropertyJson("chips", createChips(chips));
+	}
+	
+	/**
+	 * Adds the chips on the client without sending the already displayed ones again.
+	 *
+	 * @param chips key → label of the chips to add
+	 */
+	public void addChips(final Map<String, String> chips)
+	{
+		this.getElement().callJsFunction("addChips", createChips(chips));
+	}
+	
+	/**
+	 * Removes the chips with the given keys on the client.
+	 */
+	public void removeChips(final Collection<String> keys)
+	{
+		final JsonArray array = Json.createArray();
+		keys.forEach(key -> array.set(array.length(), key));
+		this.getElement().callJsFunction("removeChips", array);
+	}
+	
+	protected static JsonArray createChips(final Map<String, String> chips)
+	{
+		final JsonArray array = Json.createArray();
+		chips.forEach((key, label) -> array.set(array.length(), createChip(key, label)));
+		return array;
+	}
+	
+	protected static JsonObject createChip(final String key, final String label)
+	{
+		final JsonObject chip = Json.createObject();
+		chip.put("key", key);
+		chip.put("label", label);
+		return chip;
+	}
+	
+	public void setReadonly(final boolean readOnly)
+	{
+		this.getElement().setProperty("readonly", readOnly);
+	}
+	
+	public Registration addChipRemoveListener(final ComponentEventListener<ChipRemoveEvent> listener)
+	{
+		return this.addListener(ChipRemoveEvent.class, listener);
+	}
+	
+	/**
+	 * Fired when the remove button of a chip was clicked on the client.
+	 */
+	@DomEvent("chip-remove")
+	public static class ChipRemoveEvent extends ComponentEvent<ClientChipList>
+	{
+		protected final String key;
+		
+		public ChipRemoveEvent(
+			final ClientChipList source,
+			final boolean fromClient,
+			@EventData("event.detail.key") final String key)
+		{
+			super(source, fromClient);
+			this.key = key;
+		}
+		
+		public String getKey()
+		{
+			return this.key;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2021 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.chips;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+
+/**
+ * {@link ChipItemSource} that holds a copy of the given items.
+ * <p/>
+ * The items are stored in insertion order inside a {@link Set}, so that {@link #contains(Object)} doesn't need to scan
+ * all items.
+ * <p/>
+ * NOTE: This class is not thread-safe. Modifications should only be done by the {@link ChipComboBox} that uses it.
+ */
+public class CollectionChipItemSource<T> implements ChipItemSource<T>
+{
+	protected final Set<T> items;
+	
+	public CollectionChipItemSource(final Collection<T> items)
+	{
+		this.items = new LinkedHashSet<>(Objects.requireNonNull(items));
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Collection<T> getItems()
+	{
+		return Collections.unmodifiableSet(this.items);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(final T item)
+	{
+		return this.items.contains(item);
+	}
+	
+	/**
+	 * Adds the items (at the end) if they are not already present.
+	 *
+	 * @return <code>true</code> if the source changed
+	 */
+	public boolean addItems(final Collection<T> itemsToAdd)
+	{
+		return this.items.addAll(itemsToAdd);
+	}
+	
+	/**
+	 * Removes the items.
+	 *
+	 * @return <code>true</code> if the source changed
+	 */
+	public boolean removeItems(final Collection<T> itemsToRemove)
+	{
+		return this.items.removeAll(itemsToRemove);
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2021 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.chips;
+
+import java.io.Serializable;
+
+
+/**
+ * Maps an item to a unique, non-negative (and ideally dense) int key, e.g. the ID of an entity.
+ */
+@FunctionalInterface
+public interface ItemKeyExtractor<T> extends Serializable
+{
+	int getKey(T item);
+	
+	/**
+	 * Returns the key of the item.
+	 *
+	 * @throws IllegalArgumentException if the key is negative
+	 */
+	default int getCheckedKey(final T item)
+	{
+		final int key = this.getKey(item);
+		if(key < 0)
+		{
+			throw new IllegalArgumentException("The key of an item must not be negative: " + key + " (" + item + ")");
+		}
+		return key;
+	}
+}
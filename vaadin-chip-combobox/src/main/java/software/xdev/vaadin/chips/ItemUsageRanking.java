@@ -0,0 +1,302 @@
+/*
+ * Copyright © 2021 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.chips;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * An application-scoped, thread-safe ranking of the most frequently and recently used items, that is registered
+ * under a unique name.
+ * <p/>
+ * The usage frequencies are estimated with a count-min sketch of fixed size, so the memory usage doesn't depend on
+ * the number of items. Only the top items are tracked exactly and can be retrieved in O(K). All counters are halved
+ * periodically, so that recently used items outrank items that were used frequently in the past.<br/>
+ * When serialized (e.g. for session replication/persistence) only the name is written (like
+ * {@link SharedChipItemSource}).
+ * <p/>
+ * The top items are referenced by the ranking. It's therefore recommended to record keys (e.g. IDs) instead of
+ * session specific item instances (e.g. entities):
+ * <pre>
+ * // On application startup
+ * ItemUsageRanking.register("tags", 10);
+ *
+ * // For every instance
+ * chipComboBox.setItemUsageRanking(ItemUsageRanking.get("tags"), Tag::getId);
+ * </pre>
+ */
+public final class ItemUsageRanking<T> implements Serializable
+{
+	private static final Map<String, ItemUsageRanking<?>> REGISTRY = new ConcurrentHashMap<>();
+	
+	private static final int DEPTH = 4;
+	private static final int[] SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+	private static final int MIN_WIDTH = 1024;
+	/*
+	 * Counters per row for each tracked top item; keeps the estimates of the top items accurate
+	 */
+	private static final int COUNTERS_PER_TOP_ITEM = 64;
+	private static final int HASH_MIX_SHIFT = 17;
+	private static final int HASH_SPREAD_SHIFT = 16;
+	private static final int AGING_FACTOR = 10;
+	
+	private final String name;
+	private final int maxTopItems;
+	private final transient int width;
+	private final transient AtomicLongArray counters;
+	private final transient AtomicInteger recordings = new AtomicInteger();
+	/*
+	 * Guarded by itself
+	 */
+	private final transient Map<T, Long> topItemCounts = new HashMap<>();
+	private transient volatile List<T> topItems = List.of();
+	/*
+	 * Lower bound of the count required to enter the top items; allows skipping the lock for most recordings
+	 */
+	private transient volatile long minTopItemCount;
+	
+	private ItemUsageRanking(final String name, final int maxTopItems)
+	{
+		this.name = name;
+		this.maxTopItems = maxTopItems;
+		this.width = Math.max(MIN_WIDTH, Integer.highestOneBit(maxTopItems) * COUNTERS_PER_TOP_ITEM);
+		this.counters = new AtomicLongArray(DEPTH * this.width);
+	}
+	
+	/**
+	 * Creates a new ranking and registers it under the given name. A ranking that was previously registered with the
+	 * same name is replaced.
+	 *
+	 * @param maxTopItems the number of top items (K) that are tracked
+	 */
+	public static <T> ItemUsageRanking<T> register(final String name, final int maxTopItems)
+	{
+		Objects.requireNonNull(name);
+		if(maxTopItems < 1)
+		{
+			throw new IllegalArgumentException("maxTopItems must be positive");
+		}
+		
+		final ItemUsageRanking<T> ranking = new ItemUsageRanking<>(name, maxTopItems);
+		REGISTRY.put(name, ranking);
+		return ranking;
+	}
+	
+	/**
+	 * Returns the ranking registered under the given name.
+	 *
+	 * @throws IllegalArgumentException if no ranking is registered under the name
+	 */
+	public static <T> ItemUsageRanking<T> get(final String name)
+	{
+		return ItemUsageRanking.<T>find(name)
+			.orElseThrow(() -> new IllegalArgumentException("No ranking is registered with name '" + name + "'"));
+	}
+	
+	@SuppressWarnings("unchecked")
+	public static <T> Optional<ItemUsageRanking<T>> find(final String name)
+	{
+		return Optional.ofNullable((ItemUsageRanking<T>)REGISTRY.get(name));
+	}
+	
+	/**
+	 * Removes the ranking with the given name from the registry. Instances that still use the ranking are not
+	 * affected, however they can no longer be deserialized.
+	 */
+	public static void unregister(final String name)
+	{
+		REGISTRY.remove(name);
+	}
+	
+	/**
+	 * Records a usage (e.g. selection) of the item.
+	 */
+	public void record(final T item)
+	{
+		Objects.requireNonNull(item);
+		
+		final int hash = spread(item.hashCode());
+		long estimate = Long.MAX_VALUE;
+		for(int row = 0; row < DEPTH; row++)
+		{
+			estimate = Math.min(estimate, this.counters.incrementAndGet(this.index(hash, row)));
+		}
+		this.updateTopItems(item, estimate);
+		
+		if(this.recordings.incrementAndGet() >= this.width * AGING_FACTOR)
+		{
+			this.age();
+		}
+	}
+	
+	/**
+	 * Returns the estimated (upper bound of the) usage count of the item.
+	 */
+	public long estimate(final T item)
+	{
+		final int hash = spread(item.hashCode());
+		long estimate = Long.MAX_VALUE;
+		for(int row = 0; row < DEPTH; row++)
+		{
+			estimate = Math.min(estimate, this.counters.get(this.index(hash, row)));
+		}
+		return estimate;
+	}
+	
+	/**
+	 * Returns the top items, the most used first.
+	 *
+	 * @implNote This returns an immutable snapshot and doesn't require any computation
+	 */
+	public List<T> getTopItems()
+	{
+		return this.topItems;
+	}
+	
+	private void updateTopItems(final T item, final long estimate)
+	{
+		// Can't enter the top items (the counts only increase between snapshots, so the bound is never too high)
+		if(estimate <= this.minTopItemCount && !this.topItems.contains(item))
+		{
+			return;
+		}
+		
+		synchronized(this.topItemCounts)
+		{
+			if(!this.topItemCounts.containsKey(item) && this.topItemCounts.size() >= this.maxTopItems)
+			{
+				final Map.Entry<T, Long> leastUsed =
+					Collections.min(this.topItemCounts.entrySet(), Map.Entry.comparingByValue());
+				if(estimate <= leastUsed.getValue())
+				{
+					return;
+				}
+				this.topItemCounts.remove(leastUsed.getKey());
+			}
+			
+			final Long previousCount = this.topItemCounts.put(item, estimate);
+			// The snapshot only changes if the item is new or overtakes its predecessor
+			if(previousCount == null || this.overtakesPredecessor(item, estimate))
+			{
+				this.updateTopItemsSnapshot();
+			}
+		}
+	}
+	
+	private boolean overtakesPredecessor(final T item, final long estimate)
+	{
+		final int index = this.topItems.indexOf(item);
+		return index != 0 && (index < 0 || estimate > this.topItemCounts.get(this.topItems.get(index - 1)));
+	}
+	
+	/**
+	 * Halves all counters, so that older usages lose weight.
+	 */
+	private void age()
+	{
+		synchronized(this.topItemCounts)
+		{
+			// Another thread already aged the counters
+			if(this.recordings.get() < this.width * AGING_FACTOR)
+			{
+				return;
+			}
+			this.recordings.set(0);
+			
+			for(int i = 0; i < this.counters.length(); i++)
+			{
+				this.counters.updateAndGet(i, count -> count >>> 1);
+			}
+			this.topItemCounts.replaceAll((item, count) -> count >>> 1);
+			this.updateTopItemsSnapshot();
+		}
+	}
+	
+	private void updateTopItemsSnapshot()
+	{
+		this.topItems = this.topItemCounts.entrySet()
+			.stream()
+			.sorted(Map.Entry.<T, Long>comparingByValue().reversed())
+			.map(Map.Entry::getKey)
+			.toList();
+		this.minTopItemCount = this.topItemCounts.size() < this.maxTopItems
+			? 0
+			: this.topItemCounts.get(this.topItems.get(this.topItems.size() - 1));
+	}
+	
+	private int index(final int hash, final int row)
+	{
+		int h = hash * SEEDS[row];
+		h ^= h >>> HASH_MIX_SHIFT;
+		return row * this.width + (h & (this.width - 1));
+	}
+	
+	private static int spread(final int hash)
+	{
+		return hash ^ (hash >>> HASH_SPREAD_SHIFT);
+	}
+	
+	public String getName()
+	{
+		return this.name;
+	}
+	
+	public int getMaxTopItems()
+	{
+		return this.maxTopItems;
+	}
+	
+	private Object writeReplace()
+	{
+		return new SerializedForm(this.name);
+	}
+	
+	private void readObject(final ObjectInputStream in) throws InvalidObjectException
+	{
+		throw new InvalidObjectException("SerializedForm required");
+	}
+	
+	/**
+	 * Only the name of the ranking is serialized; it's resolved against the registry during deserialization.
+	 */
+	private static final class SerializedForm implements Serializable
+	{
+		private final String name;
+		
+		SerializedForm(final String name)
+		{
+			this.name = name;
+		}
+		
+		private Object readResolve() throws InvalidObjectException
+		{
+			return find(this.name)
+				.orElseThrow(() -> new InvalidObjectException(
+					"No ranking is registered with name '" + this.name + "'"));
+		}
+	}
+}
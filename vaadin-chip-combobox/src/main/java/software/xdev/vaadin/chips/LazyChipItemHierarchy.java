@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2021 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.chips;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import com.vaadin.flow.data.provider.hierarchy.AbstractBackEndHierarchicalDataProvider;
+import com.vaadin.flow.data.provider.hierarchy.HierarchicalQuery;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializablePredicate;
+
+
+/**
+ * Hierarchical items whose children are only loaded when their parent is expanded.
+ * <p/>
+ * The loaded children are kept (until {@link #refreshAll()}), so the memory usage is proportional to the browsed
+ * part of the hierarchy and not to the whole hierarchy.
+ * <pre>
+ * chipComboBox.setHierarchicalItems(new LazyChipItemHierarchy&lt;&gt;(
+ *     parent -&gt; parent == null ? taxonomyService.findRoots() : taxonomyService.findChildren(parent),
+ *     TaxonomyNode::hasChildren));
+ * </pre>
+ */
+public class LazyChipItemHierarchy<T> extends AbstractBackEndHierarchicalDataProvider<T, Void>
+{
+	protected final SerializableFunction<T, Collection<T>> childrenLoader;
+	protected final SerializablePredicate<T> hasChildrenPredicate;
+	/*
+	 * Parent -> children; the key of the root items is null
+	 */
+	protected final Map<T, List<T>> loadedChildren = new HashMap<>();
+	
+	/**
+	 * @param childrenLoader       loads the children of the given parent; called with <code>null</code> for the root
+	 *                             items
+	 * @param hasChildrenPredicate checks if an item has children without loading them
+	 */
+	public LazyChipItemHierarchy(
+		final SerializableFunction<T, Collection<T>> childrenLoader,
+		final SerializablePredicate<T> hasChildrenPredicate)
+	{
+		this.childrenLoader = Objects.requireNonNull(childrenLoader);
+		this.hasChildrenPredicate = Objects.requireNonNull(hasChildrenPredicate);
+	}
+	
+	protected List<T> getChildren(final T parent)
+	{
+		return this.loadedChildren.computeIfAbsent(parent, p -> List.copyOf(this.childrenLoader.apply(p)));
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Stream<T> fetchChildrenFromBackEnd(final HierarchicalQuery<T, Void> query)
+	{
+		return this.getChildren(query.getParent())
+			.stream()
+			.skip(query.getOffset())
+			.limit(query.getLimit());
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getChildCount(final HierarchicalQuery<T, Void> query)
+	{
+		return this.getChildren(query.getParent()).size();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasChildren(final T item)
+	{
+		return this.hasChildrenPredicate.test(item);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implNote All loaded children are discarded
+	 */
+	@Override
+	public void refreshAll()
+	{
+		this.loadedChildren.clear();
+		super.refreshAll();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implNote The loaded children of the item are discarded if refreshChildren is set
+	 */
+	@Override
+	public void refreshItem(final T item, final boolean refreshChildren)
+	{
+		if(refreshChildren)
+		{
+			this.loadedChildren.remove(item);
+		}
+		super.refreshItem(item, refreshChildren);
+	}
+}
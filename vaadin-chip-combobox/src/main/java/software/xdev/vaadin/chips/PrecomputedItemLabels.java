@@ -0,0 +1,306 @@
+/*
+ * Copyright © 2021 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.chips;
+
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import com.vaadin.flow.component.ItemLabelGenerator;
+
+
+/**
+ * The labels and normalized (case-folded, accent-stripped) filter keys of items, that are computed once in parallel.
+ * <p/>
+ * Filtering and label lookups afterwards don't call the {@link ItemLabelGenerator}. Labels of unknown items are
+ * generated with the original {@link ItemLabelGenerator}.<br/>
+ * The items, labels and filter keys are stored in compact parallel arrays (an open addressing hash table), so no
+ * objects are created per item except the labels themselves. A filter key that is equal to its label is not stored
+ * twice. Items can be {@link #add(Collection) added}/{@link #remove(Collection) removed} without computing the labels
+ * of all items again.
+ * <p/>
+ * NOTE: Reading is thread-safe, modifications are not. Shared instances (see
+ * {@link ChipItemSource#precomputeItemLabels(ItemLabelGenerator)}) must therefore be {@link #copy() copied} before
+ * they are modified.
+ */
+public class PrecomputedItemLabels<T> implements ItemLabelGenerator<T>
+{
+	protected static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+	
+	private static final int MIN_CAPACITY = 16;
+	private static final int HASH_SPREAD_SHIFT = 16;
+	
+	protected final ItemLabelGenerator<T> labelGenerator;
+	/*
+	 * Parallel arrays; the capacity is a power of two and at most half of the slots are used (linear probing)
+	 */
+	protected Object[] items;
+	protected String[] labels;
+	protected String[] filterKeys;
+	protected int size;
+	
+	protected PrecomputedItemLabels(final ItemLabelGenerator<T> labelGenerator, final int capacity)
+	{
+		this.labelGenerator = Objects.requireNonNull(labelGenerator);
+		this.items = new Object[capacity];
+		this.labels = new String[capacity];
+		this.filterKeys = new String[capacity];
+	}
+	
+	/**
+	 * Computes the labels and filter keys of all items in parallel (using the common
+	 * {@link java.util.concurrent.ForkJoinPool}).
+	 * <p/>
+	 * NOTE: The label generator is called from multiple threads and must therefore be thread-safe.
+	 */
+	public static <T> PrecomputedItemLabels<T> compute(
+		final Collection<T> items,
+		final ItemLabelGenerator<T> labelGenerator)
+	{
+		final PrecomputedItemLabels<T> precomputedItemLabels =
+			new PrecomputedItemLabels<>(labelGenerator, capacityFor(items.size()));
+		precomputedItemLabels.add(items);
+		return precomputedItemLabels;
+	}
+	
+	/**
+	 * Normalizes the value for filtering: Accents/diacritics are removed and the value is converted to lower case.
+	 */
+	public static String normalize(final String value)
+	{
+		return DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD))
+			.replaceAll("")
+			.toLowerCase(Locale.ROOT);
+	}
+	
+	/**
+	 * Computes the labels and filter keys of the items (in parallel) and adds them.
+	 * <p/>
+	 * The labels of a {@link BatchItemLabelGenerator} are resolved in batches instead.
+	 */
+	public void add(final Collection<T> items)
+	{
+		final List<T> itemList = List.copyOf(items);
+		final String[] newLabels = new String[itemList.size()];
+		if(this.labelGenerator instanceof final BatchItemLabelGenerator<T> batchItemLabelGenerator)
+		{
+			final Map<T, String> resolvedLabels = batchItemLabelGenerator.resolve(itemList);
+			for(int i = 0; i < newLabels.length; i++)
+			{
+				newLabels[i] = resolvedLabels.get(itemList.get(i));
+			}
+		}
+		else
+		{
+			IntStream.range(0, newLabels.length)
+				.parallel()
+				.forEach(i -> newLabels[i] = this.labelGenerator.apply(itemList.get(i)));
+		}
+		
+		final String[] newFilterKeys = new String[newLabels.length];
+		IntStream.range(0, newLabels.length)
+			.parallel()
+			.forEach(i -> newFilterKeys[i] = filterKey(newLabels[i]));
+		
+		this.ensureCapacity(this.size + newLabels.length);
+		for(int i = 0; i < newLabels.length; i++)
+		{
+			this.put(itemList.get(i), newLabels[i], newFilterKeys[i]);
+		}
+	}
+	
+	/**
+	 * Removes the labels of the items.
+	 */
+	public void remove(final Collection<T> items)
+	{
+		for(final T item : items)
+		{
+			final int index = this.indexOf(item);
+			if(index >= 0)
+			{
+				this.removeAt(index);
+			}
+		}
+	}
+	
+	/**
+	 * Returns a copy, that can be modified independently.
+	 */
+	public PrecomputedItemLabels<T> copy()
+	{
+		final PrecomputedItemLabels<T> copy = new PrecomputedItemLabels<>(this.labelGenerator, 0);
+		copy.items = this.items.clone();
+		copy.labels = this.labels.clone();
+		copy.filterKeys = this.filterKeys.clone();
+		copy.size = this.size;
+		return copy;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String apply(final T item)
+	{
+		final int index = this.indexOf(item);
+		return index >= 0
+			? this.labels[index]
+			: this.labelGenerator.apply(item);
+	}
+	
+	/**
+	 * Returns a predicate that checks if the normalized label of an item contains the normalized filter.
+	 */
+	public Predicate<T> matcher(final String filter)
+	{
+		final String normalizedFilter = normalize(filter);
+		return item ->
+		{
+			final int index = this.indexOf(item);
+			return (index >= 0 ? this.filterKeys[index] : normalize(this.labelGenerator.apply(item)))
+				.contains(normalizedFilter);
+		};
+	}
+	
+	/**
+	 * Returns the {@link ItemLabelGenerator} that was used to compute the labels.
+	 */
+	public ItemLabelGenerator<T> getLabelGenerator()
+	{
+		return this.labelGenerator;
+	}
+	
+	public int size()
+	{
+		return this.size;
+	}
+	
+	// region Hash table
+	
+	/**
+	 * Returns the filter key of the label; the label itself if normalizing doesn't change it.
+	 */
+	protected static String filterKey(final String label)
+	{
+		final String filterKey = normalize(label);
+		return filterKey.equals(label) ? label : filterKey;
+	}
+	
+	protected static int capacityFor(final int size)
+	{
+		// At most half of the slots are used
+		return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, size) * 2 - 1) * 2);
+	}
+	
+	protected int slot(final Object item)
+	{
+		final int hash = item.hashCode();
+		return (hash ^ (hash >>> HASH_SPREAD_SHIFT)) & (this.items.length - 1);
+	}
+	
+	protected int indexOf(final Object item)
+	{
+		final Object[] currentItems = this.items;
+		final int mask = currentItems.length - 1;
+		for(int i = this.slot(item); currentItems[i] != null; i = (i + 1) & mask)
+		{
+			if(currentItems[i].equals(item))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	protected void put(final Object item, final String label, final String filterKey)
+	{
+		final int mask = this.items.length - 1;
+		int i = this.slot(item);
+		while(this.items[i] != null && !this.items[i].equals(item))
+		{
+			i = (i + 1) & mask;
+		}
+		if(this.items[i] == null)
+		{
+			this.items[i] = item;
+			this.size++;
+		}
+		this.labels[i] = label;
+		this.filterKeys[i] = filterKey;
+	}
+	
+	/**
+	 * Removes the entry and moves the following entries of the probe sequence back (so that no tombstones are
+	 * required).
+	 */
+	protected void removeAt(final int index)
+	{
+		final int mask = this.items.length - 1;
+		int free = index;
+		for(int i = (index + 1) & mask; this.items[i] != null; i = (i + 1) & mask)
+		{
+			final int home = this.slot(this.items[i]);
+			// Only entries whose home slot is not between the free slot and their slot can be moved
+			final boolean between = free <= i
+				? free < home && home <= i
+				: free < home || home <= i;
+			if(!between)
+			{
+				this.items[free] = this.items[i];
+				this.labels[free] = this.labels[i];
+				this.filterKeys[free] = this.filterKeys[i];
+				free = i;
+			}
+		}
+		this.items[free] = null;
+		this.labels[free] = null;
+		this.filterKeys[free] = null;
+		this.size--;
+	}
+	
+	protected void ensureCapacity(final int requiredSize)
+	{
+		final int capacity = capacityFor(requiredSize);
+		if(capacity <= this.items.length)
+		{
+			return;
+		}
+		
+		final Object[] oldItems = this.items;
+		final String[] oldLabels = this.labels;
+		final String[] oldFilterKeys = this.filterKeys;
+		this.items = new Object[capacity];
+		this.labels = new String[capacity];
+		this.filterKeys = new String[capacity];
+		this.size = 0;
+		for(int i = 0; i < oldItems.length; i++)
+		{
+			if(oldItems[i] != null)
+			{
+				this.put(oldItems[i], oldLabels[i], oldFilterKeys[i]);
+			}
+		}
+	}
+	
+	// endregion
+}
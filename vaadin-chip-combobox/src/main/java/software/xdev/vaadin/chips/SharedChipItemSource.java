@@ -0,0 +1,235 @@
+/*
+ * Copyright © 2021 XDEV Software (https://xdev.software)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package software.xdev.vaadin.chips;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.vaadin.flow.component.ItemLabelGenerator;
+
+
+/**
+ * An immutable, application-scoped {@link ChipItemSource} that is registered under a unique name.
+ * <p/>
+ * All {@link ChipComboBox ChipComboBoxes} that use this source reference the same items, so the memory usage per
+ * instance is limited to its selection.<br/>
+ * When serialized (e.g. for session replication/persistence) only the name is written. The source must therefore be
+ * {@link #register(String, Collection) registered} (with the same name) on every node before sessions are
+ * deserialized.
+ * <pre>
+ * // On application startup
+ * SharedChipItemSource.register("tags", tagRepository.findAll());
+ *
+ * // For every instance
+ * chipComboBox.setItemSource(SharedChipItemSource.get("tags"));
+ * </pre>
+ */
+public final class SharedChipItemSource<T> implements ChipItemSource<T>
+{
+	private static final Map<String, SharedChipItemSource<?>> REGISTRY = new ConcurrentHashMap<>();
+	
+	private final String name;
+	private final transient Set<T> items;
+	/*
+	 * The labels are computed once per label generator and released when no instance uses them anymore
+	 */
+	private final transient Map<ItemLabelGenerator<T>, WeakReference<PrecomputedItemLabels<T>>> precomputedItemLabels =
+		new WeakHashMap<>();
+	/*
+	 * The items are sorted once per comparator and released when no instance uses them anymore
+	 */
+	private final transient Map<Comparator<? super T>, WeakReference<List<T>>> sortedItems = new WeakHashMap<>();
+	/*
+	 * The keys are computed once per key extractor and released when no instance uses them anymore
+	 */
+	private final transient Map<ItemKeyExtractor<T>, WeakReference<BitSet>> itemKeys = new WeakHashMap<>();
+	
+	private SharedChipItemSource(final String name, final Collection<T> items)
+	{
+		this.name = name;
+		this.items = Collections.unmodifiableSet(new LinkedHashSet<>(items));
+	}
+	
+	/**
+	 * Creates a new source with a copy of the items and registers it under the given name. A source that was
+	 * previously registered with the same name is replaced.
+	 */
+	public static <T> SharedChipItemSource<T> register(final String name, final Collection<T> items)
+	{
+		Objects.requireNonNull(name);
+		Objects.requireNonNull(items);
+		
+		final SharedChipItemSource<T> source = new SharedChipItemSource<>(name, items);
+		REGISTRY.put(name, source);
+		return source;
+	}
+	
+	/**
+	 * Returns the source registered under the given name.
+	 *
+	 * @throws IllegalArgumentException if no source is registered under the name
+	 */
+	public static <T> SharedChipItemSource<T> get(final String name)
+	{
+		return SharedChipItemSource.<T>find(name)
+			.orElseThrow(() -> new IllegalArgumentException("No source is registered with name '" + name + "'"));
+	}
+	
+	@SuppressWarnings("unchecked")
+	public static <T> Optional<SharedChipItemSource<T>> find(final String name)
+	{
+		return Optional.ofNullable((SharedChipItemSource<T>)REGISTRY.get(name));
+	}
+	
+	/**
+	 * Removes the source with the given name from the registry. Instances that still use the source are not affected,
+	 * however they can no longer be deserialized.
+	 */
+	public static void unregister(final String name)
+	{
+		REGISTRY.remove(name);
+	}
+	
+	public String getName()
+	{
+		return this.name;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Collection<T> getItems()
+	{
+		return this.items;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(final T item)
+	{
+		return this.items.contains(item);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * <p/>
+	 * The labels are only computed once per {@link ItemLabelGenerator} and shared between all instances.
+	 */
+	@Override
+	public PrecomputedItemLabels<T> precomputeItemLabels(final ItemLabelGenerator<T> labelGenerator)
+	{
+		synchronized(this.precomputedItemLabels)
+		{
+			final WeakReference<PrecomputedItemLabels<T>> ref = this.precomputedItemLabels.get(labelGenerator);
+			PrecomputedItemLabels<T> labels = ref != null ? ref.get() : null;
+			if(labels == null)
+			{
+				labels = PrecomputedItemLabels.compute(this.items, labelGenerator);
+				this.precomputedItemLabels.put(labelGenerator, new WeakReference<>(labels));
+			}
+			return labels;
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * <p/>
+	 * The items are only sorted once per comparator and the (unmodifiable) result is shared between all instances.
+	 */
+	@Override
+	public List<T> sortItems(final Comparator<? super T> comparator)
+	{
+		synchronized(this.sortedItems)
+		{
+			final WeakReference<List<T>> ref = this.sortedItems.get(comparator);
+			List<T> sorted = ref != null ? ref.get() : null;
+			if(sorted == null)
+			{
+				sorted = Collections.unmodifiableList(ChipItemSource.super.sortItems(comparator));
+				this.sortedItems.put(comparator, new WeakReference<>(sorted));
+			}
+			return sorted;
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * <p/>
+	 * The keys are only computed once per {@link ItemKeyExtractor} and shared between all instances.
+	 */
+	@Override
+	public BitSet computeItemKeys(final ItemKeyExtractor<T> keyExtractor)
+	{
+		synchronized(this.itemKeys)
+		{
+			final WeakReference<BitSet> ref = this.itemKeys.get(keyExtractor);
+			BitSet keys = ref != null ? ref.get() : null;
+			if(keys == null)
+			{
+				keys = ChipItemSource.super.computeItemKeys(keyExtractor);
+				this.itemKeys.put(keyExtractor, new WeakReference<>(keys));
+			}
+			return keys;
+		}
+	}
+	
+	private Object writeReplace()
+	{
+		return new SerializedForm(this.name);
+	}
+	
+	private void readObject(final ObjectInputStream in) throws InvalidObjectException
+	{
+		throw new InvalidObjectException("SerializedForm required");
+	}
+	
+	/**
+	 * Only the name of the source is serialized; it's resolved against the registry during deserialization.
+	 */
+	private static final class SerializedForm implements Serializable
+	{
+		private final String name;
+		
+		SerializedForm(final String name)
+		{
+			this.name = name;
+		}
+		
+		private Object readResolve() throws InvalidObjectException
+		{
+			return find(this.name)
+				.orElseThrow(() -> new InvalidObjectException(
+					"No source is registered with name '" + this.name + "'"));
+		}
+	}
+}
@@ -0,0 +1,97 @@
+import { LitElement, html, css } from 'lit';
+import { repeat } from 'lit/directives/repeat.js';
+
+/**
+ * Renders the chips of a ChipComboBox on the client.
+ * <p/>
+ * The server only sends an array of <code>{key, label}</code> objects and afterwards the added chips and the keys of
+ * the removed chips. When a chip is removed a <code>chip-remove</code> event with the key of the chip is fired.
+ * <p/>
+ * The chips use the same --xdev-chip-* custom properties as the server side chips (see xdev-chip-combobox.css).
+ */
+class XdevChipList extends LitElement {
+
+  static get properties() {
+    return {
+      chips: { type: Array },
+      readonly: { type: Boolean, reflect: true }
+    };
+  }
+
+  static get styles() {
+    return css`
+      :host {
+        display: flex;
+        flex-flow: row wrap;
+      }
+
+      :host([hidden]) {
+        display: none !important;
+      }
+
+      .chip {
+        display: inline-flex;
+        align-items: center;
+        background-color: var(--xdev-chip-background-color, var(--lumo-contrast-10pct));
+        border-radius: var(--xdev-chip-border-radius, var(--lumo-font-size-s));
+        margin: var(--xdev-chip-margin, var(--lumo-space-xs));
+        padding-left: var(--xdev-chip-padding, var(--lumo-space-s));
+        font-size: var(--xdev-chip-font-size, var(--lumo-font-size-s));
+        color: var(--lumo-body-text-color);
+      }
+
+      .remove {
+        border: none;
+        background: none;
+        cursor: pointer;
+        padding: 0 var(--lumo-space-xs);
+        font-size: var(--xdev-chip-remove-font-size, var(--lumo-font-size-m));
+        color: var(--lumo-primary-text-color);
+      }
+
+      :host([readonly]) .remove {
+        display: none;
+      }
+    `;
+  }
+
+  constructor() {
+    super();
+    this.chips = [];
+    this.readonly = false;
+  }
+
+  render() {
+    return html`${repeat(this.chips, chip => chip.key, chip => html`
+      <span class="chip" part="chip">
+        <span class="label" part="label">${chip.label}</span>
+        <button class="remove" part="remove" aria-label="Remove ${chip.label}"
+          @click=${() => this._onRemove(chip.key)}>&#x2715;</button>
+      </span>`)}`;
+  }
+
+  /**
+   * Adds the chips whose key is not already present.
+   */
+  addChips(chips) {
+    const keys = new Set(this.chips.map(chip => chip.key));
+    this.chips = [...this.chips, ...chips.filter(chip => !keys.has(chip.key))];
+  }
+
+  /**
+   * Removes the chips with the given keys.
+   */
+  removeChips(keys) {
+    const removedKeys = new Set(keys);
+    this.chips = this.chips.filter(chip => !removedKeys.has(chip.key));
+  }
+
+  _onRemove(key) {
+    if (this.readonly) {
+      return;
+    }
+    this.dispatchEvent(new CustomEvent('chip-remove', { detail: { key } }));
+  }
+}
+
+customElements.define('xdev-chip-list', XdevChipList);